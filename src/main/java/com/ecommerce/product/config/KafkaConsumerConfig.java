@@ -0,0 +1,46 @@
+package com.ecommerce.product.config;
+
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import com.ecommerce.product.kafka.support.EventTypeRecordFilterStrategy;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    /**
+     * Replaces Boot's default factory (same settings) to drop records of event
+     * types we do not handle before they reach the listeners.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            EventTypeRecordFilterStrategy eventTypeRecordFilterStrategy) {
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.setRecordFilterStrategy(eventTypeRecordFilterStrategy);
+        return factory;
+    }
+
+    /**
+     * Same settings as the default factory, but hands each poll to the listener
+     * as one list (see OrderEventBatchConsumer).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            EventTypeRecordFilterStrategy eventTypeRecordFilterStrategy) {
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.setRecordFilterStrategy(eventTypeRecordFilterStrategy);
+        factory.setBatchListener(true);
+        return factory;
+    }
+}
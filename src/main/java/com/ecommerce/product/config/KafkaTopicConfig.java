@@ -1,34 +1,49 @@
 package com.ecommerce.product.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+/**
+ * Saga topics. All saga events are keyed by orderId (the outbox aggregateId),
+ * so every event of one order lands on the same partition and is consumed in
+ * order, while different orders spread over kafka.topics.partitions.
+ *
+ * Note: KafkaAdmin only ever adds partitions to an existing topic. Raising the
+ * count remaps keys, so do it while the saga topics are drained.
+ */
 @Configuration
 public class KafkaTopicConfig {
 
+    @Value("${kafka.topics.partitions:6}")
+    private int partitions;
+
+    @Value("${kafka.topics.replicas:1}")
+    private int replicas;
+
     @Bean
     public NewTopic ordersTopic() {
         return TopicBuilder.name("orders")
-                .partitions(1)
-                .replicas(1)
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 
     @Bean
     public NewTopic paymentsTopic() {
         return TopicBuilder.name("payments")
-                .partitions(1)
-                .replicas(1)
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 
     @Bean
     public NewTopic stocksTopic() {
         return TopicBuilder.name("stocks")
-                .partitions(1)
-                .replicas(1)
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 }
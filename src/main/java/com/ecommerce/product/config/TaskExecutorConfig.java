@@ -0,0 +1,69 @@
+package com.ecommerce.product.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors of in-process background work. Each has a bounded queue, so a
+ * burst cannot pile up tasks without limit (a full queue rejects with
+ * TaskRejectedException), and is shut down with the context.
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+    /**
+     * Boot backs off its own executor once any Executor bean exists; this
+     * keeps it for whatever defaults to it (e.g. async MVC requests).
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Background COUNT(*)s of ProductCountEstimator.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor productCountExecutor(
+            @Value("${product.count.threads:2}") int threads,
+            @Value("${product.count.queue.capacity:100}") int queueCapacity) {
+        return boundedExecutor("product-count-", threads, queueCapacity);
+    }
+
+    /**
+     * Writer of ProductSearchIndex; a single thread applies changes in order.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "search.in-memory.enabled", havingValue = "true")
+    public ThreadPoolTaskExecutor searchIndexExecutor(
+            @Value("${search.in-memory.queue.capacity:10000}") int queueCapacity) {
+        return boundedExecutor("search-index-writer-", 1, queueCapacity);
+    }
+
+    /**
+     * Writer of ProductSuggestIndex; a single thread applies changes in order.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "search.suggest.enabled", havingValue = "true", matchIfMissing = true)
+    public ThreadPoolTaskExecutor suggestIndexExecutor(
+            @Value("${search.suggest.queue.capacity:10000}") int queueCapacity) {
+        return boundedExecutor("suggest-index-writer-", 1, queueCapacity);
+    }
+
+    public static ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setDaemon(true);
+        return executor;
+    }
+}
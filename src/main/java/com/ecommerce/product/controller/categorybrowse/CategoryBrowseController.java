@@ -2,13 +2,16 @@ package com.ecommerce.product.controller.categorybrowse;
 
 import java.util.List;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.ecommerce.product.controller.categorybrowse.dto.CategoryResponse;
-import com.ecommerce.product.framework.response.GlobalResponse;
 import com.ecommerce.product.service.categorybrowse.CategoryBrowseService;
+import com.ecommerce.product.service.categorybrowse.CategoryBrowseService.CategoryListBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -27,10 +30,19 @@ public class CategoryBrowseController {
 
     @Operation(summary = "Get all product categories", description = "Get a list of all product categories (e.g., for filtering menus).")
     @ApiResponse(responseCode = "200", description = "Categories retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryListResponseWrapper.class)))
-    @GetMapping
-    public GlobalResponse<List<CategoryResponse>> getAllCategories() {
-        List<CategoryResponse> categories = categoryBrowseService.getAllCategories();
-        return GlobalResponse.success(categories);
+    @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        // pre-serialized body; only re-rendered when the categories change
+        CategoryListBody body = categoryBrowseService.getAllCategories();
+
+        if (request.checkNotModified(body.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(body.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.json());
     }
 
     @Schema(description = "Response wrapper for a List of Categories")
@@ -1,22 +1,30 @@
 package com.ecommerce.product.controller.productmanage;
 
+import java.io.InputStream;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
+import com.ecommerce.product.controller.productmanage.dto.ProductImportResponse;
 import com.ecommerce.product.controller.productmanage.dto.ProductSellerResponse;
 import com.ecommerce.product.controller.productmanage.dto.ProductUpdateRequest;
+import com.ecommerce.product.controller.productmanage.dto.StockStripingRequest;
 import com.ecommerce.product.framework.response.GlobalResponse;
+import com.ecommerce.product.service.productimport.ImportFormat;
+import com.ecommerce.product.service.productimport.ProductImportService;
 import com.ecommerce.product.service.productmanage.ProductManageService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,6 +46,7 @@ import lombok.RequiredArgsConstructor;
 public class ProductManageController {
 
     private final ProductManageService productManageService;
+    private final ProductImportService productImportService;
 
     @Operation(summary = "Add a new product (Seller)", description = "Adds a new product for the currently authenticated seller. Requires ROLE_SELLER_ADMIN.")
     @ApiResponses(value = {
@@ -55,6 +64,26 @@ public class ProductManageController {
         return GlobalResponse.success(responseData);
     }
 
+    @Operation(summary = "Bulk import products (Seller)", description = "Creates one product per row of the request body for the currently authenticated seller. "
+            + "The body is streamed: NDJSON (application/x-ndjson, one ProductCreateRequest object per line) or CSV (text/csv, with a header row "
+            + "naming categoryId, title, price, stockAvailable and optionally description). Rows are validated like Add a new product; "
+            + "rejected rows are listed in the response and do not stop the import. Requires ROLE_SELLER_ADMIN.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished (see failed and errors for rejected rows)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductImportResponseWrapper.class))),
+            @ApiResponse(responseCode = "400", description = "Unreadable file (e.g., CSV header without the required columns)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Authentication failed (Invalid or missing token)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (User does not have ROLE_SELLER_ADMIN)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class)))
+    })
+    @PostMapping(value = "/import", consumes = { "application/x-ndjson", "text/csv" })
+    @PreAuthorize("hasAuthority('ROLE_SELLER_ADMIN')")
+    public GlobalResponse<ProductImportResponse> importProducts(
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        ImportFormat format = ImportFormat.of(MediaType.parseMediaType(contentType));
+        ProductImportResponse responseData = productImportService.importProducts(body, format);
+        return GlobalResponse.success(responseData);
+    }
+
     @Operation(summary = "Update an existing product (Seller)", description = "Updates a product *owned* by the currently authenticated seller. Requires ROLE_SELLER_ADMIN.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product updated successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductSellerResponseWrapper.class))),
@@ -87,6 +116,38 @@ public class ProductManageController {
         return GlobalResponse.success(Map.of("deletedId", productId));
     }
 
+    @Operation(summary = "Turn stock striping on or off (Seller)", description = "Splits the stock of a hot product *owned* by the currently authenticated seller over several counter rows, or folds it back into one. Requires ROLE_SELLER_ADMIN.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock striping updated successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductSellerResponseWrapper.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input (e.g., buckets out of range)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Authentication failed (Invalid or missing token)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (User does not own this product)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class)))
+    })
+    @PutMapping("/{productId}/stock-striping")
+    @PreAuthorize("hasAuthority('ROLE_SELLER_ADMIN')")
+    public GlobalResponse<ProductSellerResponse> updateStockStriping(
+            @Parameter(description = "The ID of the product", example = "101") @PathVariable Long productId,
+            @Valid @RequestBody StockStripingRequest request) {
+        ProductSellerResponse responseData = productManageService.updateStockStriping(productId, request);
+        return GlobalResponse.success(responseData);
+    }
+
+    @Operation(summary = "Rebalance striped stock (Seller)", description = "Spreads the available stock of a striped product *owned* by the currently authenticated seller evenly over its counter rows. Requires ROLE_SELLER_ADMIN.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock rebalanced successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductSellerResponseWrapper.class))),
+            @ApiResponse(responseCode = "401", description = "Authentication failed (Invalid or missing token)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (User does not own this product)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = GlobalResponse.class)))
+    })
+    @PostMapping("/{productId}/stock-striping/rebalance")
+    @PreAuthorize("hasAuthority('ROLE_SELLER_ADMIN')")
+    public GlobalResponse<ProductSellerResponse> rebalanceStock(
+            @Parameter(description = "The ID of the product", example = "101") @PathVariable Long productId) {
+        ProductSellerResponse responseData = productManageService.rebalanceStock(productId);
+        return GlobalResponse.success(responseData);
+    }
+
     @Schema(description = "Response wrapper for a Single Seller Product")
     private static class ProductSellerResponseWrapper {
         @Schema(example = "0")
@@ -97,6 +158,16 @@ public class ProductManageController {
         public Object meta;
     }
 
+    @Schema(description = "Response wrapper for a Bulk Import")
+    private static class ProductImportResponseWrapper {
+        @Schema(example = "0")
+        public int retCode;
+        @Schema(description = "Import outcome with per-row errors")
+        public ProductImportResponse data;
+        @Schema(nullable = true)
+        public Object meta;
+    }
+
     @Schema(description = "Response wrapper for a Delete operation")
     private static class DeleteResponseWrapper {
         @Schema(example = "0")
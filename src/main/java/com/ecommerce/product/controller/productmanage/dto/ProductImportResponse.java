@@ -0,0 +1,24 @@
+package com.ecommerce.product.controller.productmanage.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a bulk product import")
+public record ProductImportResponse(
+        @Schema(description = "Rows read from the file (blank lines and the CSV header not counted)", example = "20000") long rows,
+
+        @Schema(description = "Products created", example = "19998") long imported,
+
+        @Schema(description = "Rows rejected", example = "2") long failed,
+
+        @Schema(description = "Why rows were rejected, in file order; only the first product.import.max.errors are listed") List<RowError> errors,
+
+        @Schema(description = "Whether more rows failed than are listed in errors", example = "false") boolean errorsTruncated) {
+
+    @Schema(description = "A rejected row")
+    public record RowError(
+            @Schema(description = "Line number in the file, 1-based (header included)", example = "42") long row,
+            @Schema(description = "Why the row was rejected", example = "price must be positive") String message) {
+    }
+}
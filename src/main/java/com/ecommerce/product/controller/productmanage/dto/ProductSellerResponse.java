@@ -24,6 +24,8 @@ public record ProductSellerResponse(
 
         @Schema(description = "Reserved stock (in pending orders)", example = "10") Integer stockReserved,
 
+        @Schema(description = "Whether stock is striped over several counter rows", example = "false") Boolean stockStriped,
+
         @Schema(description = "Created timestamp") Instant createdAt,
 
         @Schema(description = "Last updated timestamp") Instant updatedAt) {
@@ -35,8 +37,9 @@ public record ProductSellerResponse(
                 entity.getTitle(),
                 entity.getDescription(),
                 entity.getPrice(),
-                entity.getStockAvailable(),
-                entity.getStockReserved(),
+                entity.getTotalStockAvailable(),
+                entity.getTotalStockReserved(),
+                entity.getStockStriped(),
                 entity.getCreatedAt(),
                 entity.getUpdatedAt());
     }
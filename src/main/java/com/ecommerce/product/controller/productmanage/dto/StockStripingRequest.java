@@ -0,0 +1,14 @@
+package com.ecommerce.product.controller.productmanage.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "Request body for turning stock striping of a (hot) product on or off")
+public record StockStripingRequest(
+
+        @Schema(description = "true to split stock over several counter rows, false to fold it back", example = "true") @NotNull(message = "enabled cannot be null") Boolean enabled,
+
+        @Schema(description = "Number of counter rows (required when enabling)", example = "8") @Min(value = 2, message = "buckets must be at least 2") @Max(value = 64, message = "buckets must be at most 64") Integer buckets) {
+}
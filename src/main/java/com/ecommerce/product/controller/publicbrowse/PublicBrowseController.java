@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,9 +13,17 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ecommerce.product.controller.publicbrowse.dto.ProductPublicResponse;
+import com.ecommerce.product.controller.publicbrowse.dto.SearchMeta;
 import com.ecommerce.product.framework.response.GlobalResponse;
+import com.ecommerce.product.framework.response.dto.CursorMeta;
 import com.ecommerce.product.framework.response.dto.PaginationMeta;
+import com.ecommerce.product.framework.response.dto.SliceMeta;
+import com.ecommerce.product.service.pagination.CursorPage;
+import com.ecommerce.product.service.pagination.PageTotal;
 import com.ecommerce.product.service.publicbrowse.PublicBrowseService;
+import com.ecommerce.product.service.search.PriceRange;
+import com.ecommerce.product.service.search.SearchFilter;
+import com.ecommerce.product.service.search.SearchPage;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,26 +42,62 @@ public class PublicBrowseController {
 
     private final PublicBrowseService publicBrowseService;
 
-    @Operation(summary = "Browse/Filter all products (Paginated)", description = "Get a paginated list of all products, optionally filtered by categoryId.")
+    @Operation(summary = "Browse/Filter all products (Paginated)", description = "Get a paginated list of all products, optionally filtered by categoryId. "
+            + "Passing a cursor (empty for the first page) switches to cursor pagination: meta then holds nextCursor instead of totals, "
+            + "and sort is limited to one of id, price, createdAt. "
+            + "Otherwise total selects how totals are reported: EXACT (COUNT per request), APPROXIMATE (cached estimate) or NONE (hasNext only).")
     @ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaginatedProductResponseWrapper.class)))
     @GetMapping
     public GlobalResponse<List<ProductPublicResponse>> getAllProducts(
             @Parameter(description = "Filter by category ID", example = "1") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Cursor pagination: meta.nextCursor of the previous page, or empty for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "How totals are reported in offset mode", example = "APPROXIMATE") @RequestParam(defaultValue = "EXACT") PageTotal total,
             @Parameter(hidden = true) @PageableDefault(size = 20, page = 0) Pageable pageable) {
-        Page<ProductPublicResponse> productPage = publicBrowseService.getAllProducts(categoryId, pageable);
-        PaginationMeta meta = new PaginationMeta(productPage);
-        return GlobalResponse.success(productPage.getContent(), meta);
+        if (cursor != null) {
+            CursorPage<ProductPublicResponse> cursorPage = publicBrowseService.getAllProducts(categoryId, cursor, pageable);
+            CursorMeta meta = new CursorMeta(cursorPage.nextCursor(), cursorPage.nextCursor() != null,
+                    cursorPage.content().size());
+            return GlobalResponse.success(cursorPage.content(), meta);
+        }
+
+        Slice<ProductPublicResponse> productSlice = publicBrowseService.getAllProducts(categoryId, pageable, total);
+        return GlobalResponse.success(productSlice.getContent(), toMeta(productSlice, total));
     }
 
-    @Operation(summary = "Search products (Full-Text)", description = "Search products by title and description using full-text search.")
+    @Operation(summary = "Search products (Full-Text)", description = "Search products by title and description using full-text search, "
+            + "optionally filtered by categoryId and priceRange. "
+            + "total selects how totals are reported: EXACT (COUNT per request), APPROXIMATE (cached estimate) or NONE (hasNext only). "
+            + "facets=true adds meta.facets, the product counts of the whole search per category and per price range; "
+            + "totals are then exact unless total=NONE.")
     @ApiResponse(responseCode = "200", description = "Search results retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaginatedProductResponseWrapper.class)))
     @GetMapping("/search")
     public GlobalResponse<List<ProductPublicResponse>> searchProducts(
             @Parameter(description = "The search query term (e.g., 'Super Game')", example = "Super Game") @RequestParam("q") String query,
+            @Parameter(description = "Filter by category ID", example = "1") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Filter by price range", example = "FROM_10_TO_50") @RequestParam(required = false) PriceRange priceRange,
+            @Parameter(description = "Whether to return facet counts in meta.facets", example = "true") @RequestParam(defaultValue = "false") boolean facets,
+            @Parameter(description = "How totals are reported", example = "APPROXIMATE") @RequestParam(defaultValue = "EXACT") PageTotal total,
             @Parameter(hidden = true) @PageableDefault(size = 10, page = 0) Pageable pageable) {
-        Page<ProductPublicResponse> productPage = publicBrowseService.searchProducts(query, pageable);
-        PaginationMeta meta = new PaginationMeta(productPage);
-        return GlobalResponse.success(productPage.getContent(), meta);
+        SearchPage<ProductPublicResponse> searchPage = publicBrowseService.searchProducts(query,
+                new SearchFilter(categoryId, priceRange), facets, pageable, total);
+        Slice<ProductPublicResponse> productSlice = searchPage.page();
+
+        Object meta = toMeta(productSlice, total);
+        if (searchPage.facets() != null) {
+            meta = new SearchMeta(meta, searchPage.facets());
+        }
+        return GlobalResponse.success(productSlice.getContent(), meta);
+    }
+
+    @Operation(summary = "Suggest search terms", description = "Completes the last word of prefix with words of product titles, "
+            + "most frequent first. Served from memory, for search boxes that would otherwise call /search on every keystroke.")
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    @GetMapping("/suggest")
+    public GlobalResponse<List<String>> suggest(
+            @Parameter(description = "What has been typed so far", example = "super ga") @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        List<String> suggestions = publicBrowseService.suggest(prefix, limit);
+        return GlobalResponse.success(suggestions);
     }
 
     @Operation(summary = "Get a single product's public details")
@@ -67,6 +112,14 @@ public class PublicBrowseController {
         return GlobalResponse.success(product);
     }
 
+    // a Page carries totals (exact or estimated); a plain Slice only hasNext
+    private static Object toMeta(Slice<?> slice, PageTotal total) {
+        if (slice instanceof Page<?> page) {
+            return new PaginationMeta(page, total == PageTotal.APPROXIMATE);
+        }
+        return new SliceMeta(slice);
+    }
+
     /**
      * swagger doc helper class for pagination response
      * since java type erasure and swagger's limitation on generic record,
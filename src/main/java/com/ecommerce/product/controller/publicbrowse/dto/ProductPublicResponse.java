@@ -31,7 +31,7 @@ public record ProductPublicResponse(
                 entity.getTitle(),
                 entity.getDescription(),
                 entity.getPrice(),
-                entity.getStockAvailable(),
+                entity.getTotalStockAvailable(),
                 entity.getUpdatedAt());
     }
 }
@@ -0,0 +1,29 @@
+package com.ecommerce.product.controller.publicbrowse.dto;
+
+import java.util.List;
+
+import com.ecommerce.product.service.search.PriceRange;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Product counts of the whole search per category and per price range. "
+        + "Each facet is narrowed by the other facet's filter only.")
+public record SearchFacets(
+        @Schema(description = "Categories with matching products, most products first") List<CategoryFacet> categories,
+        @Schema(description = "All price ranges, cheapest first") List<PriceRangeFacet> priceRanges) {
+
+    @Schema(description = "Matching products of one category")
+    public record CategoryFacet(
+            @Schema(description = "Category ID", example = "1") Long categoryId,
+            @Schema(description = "Category Name", example = "GAMES") String name,
+            @Schema(description = "Number of matching products", example = "42") long count) {
+    }
+
+    @Schema(description = "Matching products of one price range")
+    public record PriceRangeFacet(
+            @Schema(description = "Price range, also accepted as the priceRange filter", example = "FROM_10_TO_50") PriceRange range,
+            @Schema(description = "Lowest price in cents, inclusive (null = no lower bound)", example = "1000") Long minPrice,
+            @Schema(description = "Highest price in cents, exclusive (null = no upper bound)", example = "5000") Long maxPrice,
+            @Schema(description = "Number of matching products", example = "17") long count) {
+    }
+}
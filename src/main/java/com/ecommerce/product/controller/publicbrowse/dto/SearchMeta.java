@@ -0,0 +1,15 @@
+package com.ecommerce.product.controller.publicbrowse.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Pagination meta of a faceted search: the fields of the page meta stay at
+ * the top level, so clients that ignore facets read it as before.
+ */
+@Schema(description = "Pagination metadata with search facets")
+public record SearchMeta(
+        @JsonUnwrapped @Schema(description = "PaginationMeta or SliceMeta fields") Object page,
+        @Schema(description = "Facet counts") SearchFacets facets) {
+}
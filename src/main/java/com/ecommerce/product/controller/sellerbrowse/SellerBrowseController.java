@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,7 +15,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.ecommerce.product.controller.sellerbrowse.dto.ProductSellerResponse;
 import com.ecommerce.product.framework.response.GlobalResponse;
+import com.ecommerce.product.framework.response.dto.CursorMeta;
 import com.ecommerce.product.framework.response.dto.PaginationMeta;
+import com.ecommerce.product.framework.response.dto.SliceMeta;
+import com.ecommerce.product.service.pagination.CursorPage;
+import com.ecommerce.product.service.pagination.PageTotal;
 import com.ecommerce.product.service.sellerbrowse.SellerBrowseService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,15 +42,26 @@ public class SellerBrowseController {
 
     private final SellerBrowseService sellerBrowseService;
 
-    @Operation(summary = "Get my products (Paginated)", description = "Get a paginated list of products *owned* by the currently authenticated seller.")
+    @Operation(summary = "Get my products (Paginated)", description = "Get a paginated list of products *owned* by the currently authenticated seller. "
+            + "Passing a cursor (empty for the first page) switches to cursor pagination: meta then holds nextCursor instead of totals, "
+            + "and sort is limited to one of id, price, createdAt. "
+            + "Otherwise total selects how totals are reported: EXACT (COUNT per request), APPROXIMATE (cached estimate) or NONE (hasNext only).")
     @ApiResponse(responseCode = "200", description = "Products retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaginatedProductSellerResponseWrapper.class)))
     @GetMapping
     public GlobalResponse<List<ProductSellerResponse>> getMyProducts(
             @Parameter(description = "Filter by category ID", example = "1") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Cursor pagination: meta.nextCursor of the previous page, or empty for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "How totals are reported in offset mode", example = "APPROXIMATE") @RequestParam(defaultValue = "EXACT") PageTotal total,
             @Parameter(hidden = true) @PageableDefault(size = 20, page = 0) Pageable pageable) {
-        Page<ProductSellerResponse> productPage = sellerBrowseService.getMyProducts(categoryId, pageable);
-        PaginationMeta meta = new PaginationMeta(productPage);
-        return GlobalResponse.success(productPage.getContent(), meta);
+        if (cursor != null) {
+            CursorPage<ProductSellerResponse> cursorPage = sellerBrowseService.getMyProducts(categoryId, cursor, pageable);
+            CursorMeta meta = new CursorMeta(cursorPage.nextCursor(), cursorPage.nextCursor() != null,
+                    cursorPage.content().size());
+            return GlobalResponse.success(cursorPage.content(), meta);
+        }
+
+        Slice<ProductSellerResponse> productSlice = sellerBrowseService.getMyProducts(categoryId, pageable, total);
+        return GlobalResponse.success(productSlice.getContent(), toMeta(productSlice, total));
     }
 
     @Operation(summary = "Get my single product's details", description = "Get details for a *specific* product *owned* by the currently authenticated seller.")
@@ -61,6 +77,14 @@ public class SellerBrowseController {
         return GlobalResponse.success(product);
     }
 
+    // a Page carries totals (exact or estimated); a plain Slice only hasNext
+    private static Object toMeta(Slice<?> slice, PageTotal total) {
+        if (slice instanceof Page<?> page) {
+            return new PaginationMeta(page, total == PageTotal.APPROXIMATE);
+        }
+        return new SliceMeta(slice);
+    }
+
     @Schema(description = "Paginated response wrapper for Seller Products")
     private static class PaginatedProductSellerResponseWrapper {
         @Schema(example = "0")
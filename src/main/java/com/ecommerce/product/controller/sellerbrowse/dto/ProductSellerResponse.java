@@ -16,6 +16,7 @@ public record ProductSellerResponse(
         @Schema(description = "Price in cents", example = "5999") Long price,
         @Schema(description = "Available stock", example = "150") Integer stockAvailable,
         @Schema(description = "Reserved stock", example = "10") Integer stockReserved,
+        @Schema(description = "Whether stock is striped over several counter rows", example = "false") Boolean stockStriped,
         @Schema(description = "Created timestamp") Instant createdAt,
         @Schema(description = "Last updated timestamp") Instant updatedAt) {
     public ProductSellerResponse(Product entity) {
@@ -26,8 +27,9 @@ public record ProductSellerResponse(
                 entity.getTitle(),
                 entity.getDescription(),
                 entity.getPrice(),
-                entity.getStockAvailable(),
-                entity.getStockReserved(),
+                entity.getTotalStockAvailable(),
+                entity.getTotalStockReserved(),
+                entity.getStockStriped(),
                 entity.getCreatedAt(),
                 entity.getUpdatedAt());
     }
@@ -0,0 +1,8 @@
+package com.ecommerce.product.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.product.exception;
+
+/**
+ * A bulk import whose file cannot be read at all (e.g. a CSV header without
+ * the required columns), as opposed to single bad rows, which are reported
+ * per row.
+ */
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.product.exception;
+
+public class StockStripingConflictException extends RuntimeException {
+
+    public StockStripingConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.product.framework.response.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Cursor pagination metadata")
+public record CursorMeta(
+        @Schema(description = "Opaque cursor of the next page (null on the last page)", example = "cHJpY2V8QVNDfDU5OTl8MTAx") String nextCursor,
+
+        @Schema(description = "Whether there is a next page", example = "true") boolean hasNext,
+
+        @Schema(description = "Number of items on this page", example = "20") int size) {
+}
@@ -12,12 +12,19 @@ public record PaginationMeta(
 
         @Schema(description = "Current page number (0-indexed)", example = "0") int pageNumber,
 
-        @Schema(description = "Number of items per page", example = "10") int pageSize) {
+        @Schema(description = "Number of items per page", example = "10") int pageSize,
+
+        @Schema(description = "Whether the totals are a cached estimate rather than an exact count", example = "false") boolean approximate) {
     public PaginationMeta(Page<?> page) {
+        this(page, false);
+    }
+
+    public PaginationMeta(Page<?> page, boolean approximate) {
         this(
                 page.getTotalElements(),
                 page.getTotalPages(),
                 page.getNumber(),
-                page.getSize());
+                page.getSize(),
+                approximate);
     }
 }
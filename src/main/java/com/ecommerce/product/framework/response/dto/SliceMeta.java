@@ -0,0 +1,20 @@
+package com.ecommerce.product.framework.response.dto;
+
+import org.springframework.data.domain.Slice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Pagination metadata without totals")
+public record SliceMeta(
+        @Schema(description = "Whether there is a next page", example = "true") boolean hasNext,
+
+        @Schema(description = "Current page number (0-indexed)", example = "0") int pageNumber,
+
+        @Schema(description = "Number of items per page", example = "10") int pageSize) {
+    public SliceMeta(Slice<?> slice) {
+        this(
+                slice.hasNext(),
+                slice.getNumber(),
+                slice.getSize());
+    }
+}
@@ -9,10 +9,14 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import com.ecommerce.product.exception.CategoryNotFoundException;
+import com.ecommerce.product.exception.InvalidCursorException;
+import com.ecommerce.product.exception.InvalidImportException;
 import com.ecommerce.product.exception.ProductAccessDeniedException;
 import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.exception.StockStripingConflictException;
 import com.ecommerce.product.framework.response.GlobalResponse;
 
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +49,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles 400 Bad Request (a query parameter of the wrong type, e.g. an
+     * unknown total mode).
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<GlobalResponse<Object>> handleTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        String errorMessage = "Invalid value for parameter '" + ex.getName() + "': " + ex.getValue();
+        log.warn("Invalid input: {}", errorMessage);
+        GlobalResponse<Object> response = GlobalResponse.error(errorMessage);
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<GlobalResponse<Object>> handleInvalidCursorException(InvalidCursorException ex) {
+        log.warn("Invalid input: {}", ex.getMessage());
+        GlobalResponse<Object> response = GlobalResponse.error(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<GlobalResponse<Object>> handleInvalidImportException(InvalidImportException ex) {
+        log.warn("Invalid input: {}", ex.getMessage());
+        GlobalResponse<Object> response = GlobalResponse.error(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles 401 Unauthorized (Authentication failures).
      * This catches BadCredentialsException (wrong password)
@@ -74,6 +104,16 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles 409 Conflict (stock striping not possible in the current setup).
+     */
+    @ExceptionHandler(StockStripingConflictException.class)
+    public ResponseEntity<GlobalResponse<Object>> handleStockStripingConflictException(StockStripingConflictException ex) {
+        log.warn("Conflict: {}", ex.getMessage());
+        GlobalResponse<Object> response = GlobalResponse.error(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles 500 Internal Server Error (all other uncaught exceptions).
      */
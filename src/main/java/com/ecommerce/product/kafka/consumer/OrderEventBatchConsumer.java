@@ -0,0 +1,109 @@
+package com.ecommerce.product.kafka.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.product.kafka.support.OutboxEventEnvelope;
+import com.ecommerce.product.model.db.entity.OutboxEvent;
+import com.ecommerce.product.service.stock.StockSagaService;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batch variant of {@link OrderEventConsumer}: every poll of the 'orders' topic
+ * is reserved in a single transaction. Enabled with
+ * kafka.consumer.orders.batch.enabled=true.
+ *
+ * If the batch transaction fails, its orders are retried one transaction each
+ * (already processed ones are skipped by eventId). An order that still fails is
+ * handed to the container's error handler as a BatchListenerFailedException,
+ * so the orders before it are committed and it is retried, not dropped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.orders.batch.enabled", havingValue = "true")
+public class OrderEventBatchConsumer {
+
+    private final StockSagaService stockSagaService;
+    private final OutboxEventEnvelope outboxEventEnvelope;
+    private final Tracer tracer;
+
+    private static final String EVENT_TYPE_ORDER_CREATED = "ORDER_CREATED";
+
+    @KafkaListener(topics = "orders", groupId = "product-service-group", containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleOrderEvents(List<ConsumerRecord<String, String>> records) {
+
+        Span consumerSpan = tracer.spanBuilder("consume-order-created-batch").startSpan();
+
+        try {
+            List<OutboxEvent> incomingEvents = new ArrayList<>(records.size());
+            List<ConsumerRecord<String, String>> incomingRecords = new ArrayList<>(records.size());
+
+            for (ConsumerRecord<String, String> record : records) {
+                try {
+                    OutboxEvent incomingEvent = outboxEventEnvelope.fromRecord(record);
+
+                    if (EVENT_TYPE_ORDER_CREATED.equals(incomingEvent.getEventType())) {
+                        incomingEvents.add(incomingEvent);
+                        incomingRecords.add(record);
+                    }
+                } catch (Exception e) {
+                    log.error("[Consumer] Skipping unreadable record from 'orders' topic. Key: {}. Error: {}",
+                            record.key(), e.getMessage());
+                }
+            }
+
+            if (incomingEvents.isEmpty()) {
+                return;
+            }
+
+            log.info("[Consumer] Received batch of {} {} events ({} records).",
+                    incomingEvents.size(), EVENT_TYPE_ORDER_CREATED, records.size());
+
+            consumerSpan.setAttribute("kafka.event.type", EVENT_TYPE_ORDER_CREATED);
+            consumerSpan.setAttribute("kafka.batch.size", incomingEvents.size());
+
+            try (Scope ws = consumerSpan.makeCurrent()) {
+                try {
+                    stockSagaService.processOrderCreatedBatch(incomingEvents);
+                } catch (Exception e) {
+                    // the batch transaction rolled back as a whole: isolate the failing order
+                    log.warn("[Consumer] Batch of {} {} events failed, retrying one at a time. Error: {}",
+                            incomingEvents.size(), EVENT_TYPE_ORDER_CREATED, e.getMessage());
+                    processOneByOne(incomingEvents, incomingRecords);
+                }
+            }
+
+        } catch (BatchListenerFailedException e) {
+            log.error("[Consumer] Failed to process record from 'orders' topic. Key: {}. Error: {}",
+                    e.getRecord().key(), e.getCause().getMessage(), e.getCause());
+            consumerSpan.setStatus(StatusCode.ERROR, e.getCause().getMessage());
+            consumerSpan.recordException(e.getCause());
+            // the container commits the records before it and retries (then skips) from it
+            throw e;
+        }
+    }
+
+    private void processOneByOne(List<OutboxEvent> incomingEvents, List<ConsumerRecord<String, String>> incomingRecords) {
+        for (int i = 0; i < incomingEvents.size(); i++) {
+            try {
+                stockSagaService.processOrderCreated(incomingEvents.get(i));
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Failed to process " + EVENT_TYPE_ORDER_CREATED + " event "
+                        + incomingEvents.get(i).getEventId(), e, incomingRecords.get(i));
+            }
+        }
+    }
+}
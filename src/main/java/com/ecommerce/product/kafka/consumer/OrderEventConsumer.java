@@ -1,13 +1,13 @@
 package com.ecommerce.product.kafka.consumer;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import com.ecommerce.product.kafka.support.OutboxEventEnvelope;
 import com.ecommerce.product.model.db.entity.OutboxEvent;
 import com.ecommerce.product.service.stock.StockSagaService;
-import com.ecommerce.product.util.JsonUtil;
 
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
@@ -19,21 +19,23 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "kafka.consumer.orders.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderEventConsumer {
 
     private final StockSagaService stockSagaService;
-    private final JsonUtil jsonUtil;
+    private final OutboxEventEnvelope outboxEventEnvelope;
     private final Tracer tracer;
 
     private static final String EVENT_TYPE_ORDER_CREATED = "ORDER_CREATED";
 
     @KafkaListener(topics = "orders", groupId = "product-service-group")
-    public void handleOrderEvent(String message, @Header(KafkaHeaders.RECEIVED_KEY) String key) {
+    public void handleOrderEvent(ConsumerRecord<String, String> record) {
+        String key = record.key();
 
         Span consumerSpan = tracer.spanBuilder("consume-order-created").startSpan();
 
         try {
-            OutboxEvent incomingEvent = jsonUtil.fromJson(message, OutboxEvent.class);
+            OutboxEvent incomingEvent = outboxEventEnvelope.fromRecord(record);
 
             if (EVENT_TYPE_ORDER_CREATED.equals(incomingEvent.getEventType())) {
                 log.info("[Consumer] Received event: {}. Key: {}", EVENT_TYPE_ORDER_CREATED, key);
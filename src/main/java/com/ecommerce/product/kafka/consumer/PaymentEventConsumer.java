@@ -1,13 +1,12 @@
 package com.ecommerce.product.kafka.consumer;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import com.ecommerce.product.kafka.support.OutboxEventEnvelope;
 import com.ecommerce.product.model.db.entity.OutboxEvent;
 import com.ecommerce.product.service.stock.StockSagaService;
-import com.ecommerce.product.util.JsonUtil;
 
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
@@ -22,19 +21,20 @@ import lombok.extern.slf4j.Slf4j;
 public class PaymentEventConsumer {
 
     private final StockSagaService stockSagaService;
-    private final JsonUtil jsonUtil;
+    private final OutboxEventEnvelope outboxEventEnvelope;
     private final Tracer tracer;
 
     private static final String EVENT_TYPE_PAYMENT_SUCCEEDED = "PAYMENT_SUCCEEDED";
     private static final String EVENT_TYPE_PAYMENT_FAILED = "PAYMENT_FAILED";
 
     @KafkaListener(topics = "payments", groupId = "product-service-group")
-    public void handlePaymentEvent(String message, @Header(KafkaHeaders.RECEIVED_KEY) String key) {
+    public void handlePaymentEvent(ConsumerRecord<String, String> record) {
+        String key = record.key();
 
         Span consumerSpan = tracer.spanBuilder("consume-payment-result").startSpan();
 
         try {
-            OutboxEvent incomingEvent = jsonUtil.fromJson(message, OutboxEvent.class);
+            OutboxEvent incomingEvent = outboxEventEnvelope.fromRecord(record);
             String eventType = incomingEvent.getEventType();
 
             if (EVENT_TYPE_PAYMENT_SUCCEEDED.equals(eventType) || EVENT_TYPE_PAYMENT_FAILED.equals(eventType)) {
@@ -0,0 +1,39 @@
+package com.ecommerce.product.kafka.producer;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.product.model.db.entity.OutboxEvent;
+import com.ecommerce.product.repository.db.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Claims pending outbox events for one publisher replica.
+ *
+ * Claiming is a short transaction: SELECT ... FOR UPDATE SKIP LOCKED picks rows
+ * without a live lease, and they are stamped with this replica as owner and a
+ * DB-clock expiry. Publishing then happens outside any transaction. If the
+ * owner crashes, its lease simply expires and another replica claims the rows.
+ * A claim takes only the oldest pending event of each aggregate, which keeps
+ * the per-aggregate order across replicas.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEventClaimer {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Transactional
+    public List<OutboxEvent> claim(String owner, int limit, long leaseMs) {
+        List<OutboxEvent> events = outboxEventRepository.findClaimable(limit);
+
+        if (!events.isEmpty()) {
+            outboxEventRepository.lease(events.stream().map(OutboxEvent::getId).toList(), owner, leaseMs);
+        }
+
+        return events;
+    }
+}
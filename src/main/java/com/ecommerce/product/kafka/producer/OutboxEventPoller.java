@@ -1,71 +1,249 @@
 package com.ecommerce.product.kafka.producer;
 
+import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import com.ecommerce.product.kafka.support.OutboxEventEnvelope;
 import com.ecommerce.product.model.db.entity.OutboxEvent;
+import com.ecommerce.product.model.event.OutboxEventsCreatedEvent;
 import com.ecommerce.product.repository.db.OutboxEventRepository;
-import com.ecommerce.product.util.JsonUtil;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Publishes PENDING outbox events to Kafka.
+ *
+ * Publishing runs on a single dedicated thread and is triggered two ways:
+ * right after a transaction that inserted outbox rows commits, and by a
+ * scheduled safety-net poll. The poll backs off (doubling up to
+ * kafka.poller.max.delay.ms) while the table stays empty, and a drain keeps
+ * fetching batches back to back while they publish anything: a batch holds at
+ * most one event per aggregate, so the next one may hold their successors.
+ *
+ * Every batch is claimed through {@link OutboxEventClaimer}, so any number of
+ * replicas can run this poller on the same table without publishing the same
+ * rows, or two events of one aggregate at the same time.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OutboxEventPoller {
 
     private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventClaimer outboxEventClaimer;
     private final KafkaTemplate<String, String> kafkaTemplate;
-    private final JsonUtil jsonUtil;
+    private final OutboxEventEnvelope outboxEventEnvelope;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long leaseMs;
+    private final String leaseOwner = resolveLeaseOwner();
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    private final ExecutorService publisherExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    // written by the publisher thread, read by the scheduler thread
+    private volatile long idleDelayMs;
+    private volatile long nextPollAtMs;
+
+    public OutboxEventPoller(OutboxEventRepository outboxEventRepository,
+            OutboxEventClaimer outboxEventClaimer,
+            KafkaTemplate<String, String> kafkaTemplate,
+            OutboxEventEnvelope outboxEventEnvelope,
+            @Value("${kafka.poller.batch.size:100}") int batchSize,
+            @Value("${kafka.poller.send.timeout.ms:10000}") long sendTimeoutMs,
+            @Value("${kafka.poller.lease.ms:30000}") long leaseMs,
+            @Value("${kafka.poller.delay.ms:1000}") long baseDelayMs,
+            @Value("${kafka.poller.max.delay.ms:10000}") long maxDelayMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventClaimer = outboxEventClaimer;
+        this.kafkaTemplate = kafkaTemplate;
+        this.outboxEventEnvelope = outboxEventEnvelope;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.leaseMs = leaseMs;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.idleDelayMs = baseDelayMs;
+    }
 
-    private static final Pageable BATCH_PAGEABLE = PageRequest.of(0, 100);
-    private static final String STATUS_PENDING = "PENDING";
-    private static final String STATUS_SENT = "SENT";
-    // private static final String STATUS_FAILED = "FAILED";
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOutboxEventsCreated(OutboxEventsCreatedEvent event) {
+        wakeUp();
+    }
 
+    /**
+     * Safety net for rows whose commit hook was missed (e.g. a restart or a
+     * failed send). Runs at kafka.poller.delay.ms, but skips ticks while backing
+     * off on an empty table.
+     */
     @Scheduled(fixedDelayString = "${kafka.poller.delay.ms:1000}")
     public void pollOutboxEvents() {
+        if (System.currentTimeMillis() >= nextPollAtMs) {
+            wakeUp();
+        }
+    }
 
-        List<OutboxEvent> events = outboxEventRepository.findByStatusOrderByUpdatedAtAsc(
-                STATUS_PENDING,
-                BATCH_PAGEABLE);
+    /**
+     * Requests a drain on the publisher thread. Calls made while a drain is
+     * already queued are coalesced into it.
+     */
+    public void wakeUp() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                publisherExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisherExecutor.shutdown();
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+
+        int published = 0;
+        try {
+            int sent;
+            do {
+                sent = publishBatch();
+                published += sent;
+            } while (sent > 0 && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("[Outbox] Failed to poll outbox events. Error: {}", e.getMessage(), e);
+        }
+
+        idleDelayMs = published == 0 ? Math.min(idleDelayMs * 2, maxDelayMs) : baseDelayMs;
+        nextPollAtMs = System.currentTimeMillis() + idleDelayMs;
+    }
+
+    /**
+     * Claims and publishes one batch of pending events.
+     *
+     * @return the number of events published.
+     */
+    private int publishBatch() {
+
+        List<OutboxEvent> events = outboxEventClaimer.claim(leaseOwner, batchSize, leaseMs);
 
         if (events.isEmpty()) {
-            return;
+            return 0;
         }
 
         log.info("[Outbox] Found {} pending events to publish...", events.size());
-        List<OutboxEvent> sentEvents = new ArrayList<>();
 
+        // events of one aggregate are chained so each is only sent after the previous
+        // one was acked (and never after one that failed); different aggregates are
+        // in flight at the same time
+        Map<String, List<OutboxEvent>> eventsByAggregate = new LinkedHashMap<>();
         for (OutboxEvent event : events) {
-            try {
-                String topic = event.getAggregateType();
-                String key = event.getAggregateId();
-                String value = jsonUtil.toJson(event);
-                ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, value);
+            eventsByAggregate.computeIfAbsent(event.getAggregateId(), k -> new ArrayList<>()).add(event);
+        }
+
+        ConcurrentLinkedQueue<Long> sentIds = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> chains = new ArrayList<>(eventsByAggregate.size());
 
-                kafkaTemplate.send(record).get();
+        for (List<OutboxEvent> aggregateEvents : eventsByAggregate.values()) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
 
-                event.setStatus(STATUS_SENT);
-                sentEvents.add(event);
+            for (OutboxEvent event : aggregateEvents) {
+                chain = chain
+                        .thenComposeAsync(ignored -> send(event))
+                        .thenAccept(ignored -> sentIds.add(event.getId()));
+            }
+
+            chains.add(chain.exceptionally(e -> null));
+        }
 
-            } catch (Exception e) {
+        try {
+            CompletableFuture.allOf(chains.toArray(CompletableFuture[]::new))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // whatever is not acked yet is retried on the next poll
+            log.warn("[Outbox] Timed out after {} ms waiting for broker acks.", sendTimeoutMs);
+        } catch (InterruptedException e) {
+            log.warn("[Outbox] Interrupted while waiting for broker acks.");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // not expected, failures are already absorbed per aggregate chain
+            log.error("[Outbox] Unexpected publish failure. Error: {}", e.getMessage());
+        }
+
+        List<Long> ids = new ArrayList<>(sentIds);
+        if (!ids.isEmpty()) {
+            int marked = outboxEventRepository.markAsSent(ids, leaseOwner);
+            log.info("[Outbox] Successfully published {} events.", ids.size());
+            if (marked < ids.size()) {
+                // the lease ran out mid-send and another replica claimed them: they go out twice
+                log.warn("[Outbox] {} of {} published events were leased to another publisher meanwhile; "
+                        + "raise kafka.poller.lease.ms above kafka.poller.send.timeout.ms.", ids.size() - marked, ids.size());
+            }
+        }
+
+        if (ids.size() < events.size()) {
+            // hand the unsent ones back right away instead of waiting for the lease to expire
+            Set<Long> sentIdSet = new HashSet<>(ids);
+            List<Long> unsentIds = events.stream()
+                    .map(OutboxEvent::getId)
+                    .filter(id -> !sentIdSet.contains(id))
+                    .toList();
+            outboxEventRepository.releaseLease(unsentIds, leaseOwner);
+        }
+
+        return ids.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        ProducerRecord<String, String> record = outboxEventEnvelope.toRecord(event);
+
+        return kafkaTemplate.send(record).whenComplete((result, e) -> {
+            if (e != null) {
                 // wait for next poll
                 log.error("[Outbox] Failed to send eventId: {}. Error: {}", event.getEventId(), e.getMessage());
             }
-        }
+        });
+    }
 
-        if (!sentEvents.isEmpty()) {
-            outboxEventRepository.saveAll(sentEvents);
-            log.info("[Outbox] Successfully published {} events.", sentEvents.size());
+    private static String resolveLeaseOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
         }
+        // suffix keeps owners distinct across restarts of the same host
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
     }
 }
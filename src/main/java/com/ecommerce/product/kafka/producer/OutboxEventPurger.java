@@ -0,0 +1,187 @@
+package com.ecommerce.product.kafka.producer;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.product.repository.db.OutboxEventRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retention for outbox_event.
+ *
+ * SENT rows older than outbox.retention.ttl.hours are deleted in small
+ * keyset-bounded chunks, each in its own short transaction, so the purge never
+ * holds locks on a large range. Chunks are found by seeking idx_status_updated_at
+ * (status, updated_at, then the primary key id) from the previous chunk's last
+ * row, so a run reads only expired rows and stops at the cutoff. When the table is range-partitioned by
+ * created_at (see changelog 006) and outbox.retention.partitions.enabled=true,
+ * expired monthly partitions that hold only SENT rows are dropped whole, and
+ * upcoming months are split off the catch-all partition ahead of time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxEventPurger {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+    private final boolean partitionsEnabled;
+
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final int PARTITION_MONTHS_AHEAD = 2;
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    public OutboxEventPurger(OutboxEventRepository outboxEventRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${outbox.retention.ttl.hours:168}") long ttlHours,
+            @Value("${outbox.retention.chunk.size:500}") int chunkSize,
+            @Value("${outbox.retention.chunk.pause.ms:50}") long chunkPauseMs,
+            @Value("${outbox.retention.partitions.enabled:false}") boolean partitionsEnabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.chunkSize = chunkSize;
+        this.chunkPauseMs = chunkPauseMs;
+        this.partitionsEnabled = partitionsEnabled;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.retention.delay.ms:600000}", initialDelayString = "${outbox.retention.initial.delay.ms:60000}")
+    public void purgeExpiredEvents() {
+        Instant cutoff = Instant.now().minus(ttl);
+
+        try {
+            if (partitionsEnabled) {
+                maintainPartitions(cutoff);
+            }
+            purgeInChunks(cutoff);
+        } catch (Exception e) {
+            log.error("[Outbox] Retention run failed. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    private void purgeInChunks(Instant cutoff) {
+        SentKey after = null;
+        int deleted = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<SentKey> keys = findSentBefore(cutoff, after);
+            if (keys.isEmpty()) {
+                break;
+            }
+
+            deleted += outboxEventRepository.deleteSentByIds(keys.stream().map(SentKey::id).toList());
+            after = keys.get(keys.size() - 1);
+
+            if (keys.size() < chunkSize) {
+                break;
+            }
+            pause();
+        }
+
+        if (deleted > 0) {
+            log.info("[Outbox] Purged {} SENT events older than {}.", deleted, cutoff);
+        }
+    }
+
+    /**
+     * The next chunk of SENT rows last touched before {@code cutoff}, in
+     * (updated_at, id) order after {@code after} (from the start when null).
+     */
+    private List<SentKey> findSentBefore(Instant cutoff, SentKey after) {
+        RowMapper<SentKey> mapper = (rs, rowNum) -> new SentKey(rs.getTimestamp(1), rs.getLong(2));
+        if (after == null) {
+            return jdbcTemplate.query("SELECT updated_at, id FROM outbox_event "
+                    + "WHERE status = 'SENT' AND updated_at < ? "
+                    + "ORDER BY updated_at, id LIMIT ?", mapper, Timestamp.from(cutoff), chunkSize);
+        }
+        return jdbcTemplate.query("SELECT updated_at, id FROM outbox_event "
+                + "WHERE status = 'SENT' AND updated_at < ? AND (updated_at > ? OR (updated_at = ? AND id > ?)) "
+                + "ORDER BY updated_at, id LIMIT ?", mapper,
+                Timestamp.from(cutoff), after.updatedAt(), after.updatedAt(), after.id(), chunkSize);
+    }
+
+    private void maintainPartitions(Instant cutoff) {
+        List<PartitionInfo> partitions = jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'outbox_event' AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new PartitionInfo(rs.getString(1), rs.getString(2)));
+
+        if (partitions.isEmpty()) {
+            log.warn("[Outbox] outbox.retention.partitions.enabled is set but outbox_event is not partitioned.");
+            return;
+        }
+
+        long highestBound = 0;
+        for (PartitionInfo partition : partitions) {
+            if (FUTURE_PARTITION.equals(partition.name())) {
+                continue;
+            }
+            long upperBound = Long.parseLong(partition.description());
+            highestBound = Math.max(highestBound, upperBound);
+
+            if (upperBound <= cutoff.getEpochSecond()) {
+                dropIfFullySent(partition.name());
+            }
+        }
+
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= PARTITION_MONTHS_AHEAD; i++, month = month.plusMonths(1)) {
+            long upperBound = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+            if (upperBound > highestBound) {
+                jdbcTemplate.execute("ALTER TABLE outbox_event REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                        + "PARTITION " + month.format(PARTITION_NAME_FORMAT) + " VALUES LESS THAN (" + upperBound + "), "
+                        + "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)");
+                highestBound = upperBound;
+                log.info("[Outbox] Added partition {}.", month.format(PARTITION_NAME_FORMAT));
+            }
+        }
+    }
+
+    private void dropIfFullySent(String partitionName) {
+        Integer unsent = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_event PARTITION (" + partitionName + ") WHERE status <> 'SENT'",
+                Integer.class);
+
+        if (unsent != null && unsent > 0) {
+            log.warn("[Outbox] Keeping expired partition {}: {} events are not SENT yet.", partitionName, unsent);
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE outbox_event DROP PARTITION " + partitionName);
+        log.info("[Outbox] Dropped expired partition {}.", partitionName);
+    }
+
+    private void pause() {
+        if (chunkPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record PartitionInfo(String name, String description) {
+    }
+
+    private record SentKey(Timestamp updatedAt, long id) {
+    }
+}
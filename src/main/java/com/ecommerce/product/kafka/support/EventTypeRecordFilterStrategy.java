@@ -0,0 +1,85 @@
+package com.ecommerce.product.kafka.support;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Discards records whose event type is not handled by this service, before the
+ * listener deserializes anything.
+ *
+ * The event type is read from the eventType header (compact envelope) or, for
+ * legacy records, by streaming the top-level JSON fields until "eventType" is
+ * found, skipping nested values without building them. Records whose type
+ * cannot be determined are passed through so the listener can log them.
+ * Discards are counted in kafka.consumer.records.discarded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventTypeRecordFilterStrategy implements RecordFilterStrategy<Object, Object> {
+
+    private static final Map<String, Set<String>> ACCEPTED_EVENT_TYPES = Map.of(
+            "orders", Set.of("ORDER_CREATED"),
+            "payments", Set.of("PAYMENT_SUCCEEDED", "PAYMENT_FAILED"));
+
+    private static final String FIELD_EVENT_TYPE = "eventType";
+    private static final String METRIC_DISCARDED = "kafka.consumer.records.discarded";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean filter(ConsumerRecord<Object, Object> record) {
+        Set<String> accepted = ACCEPTED_EVENT_TYPES.get(record.topic());
+        if (accepted == null) {
+            return false;
+        }
+
+        String eventType = OutboxEventEnvelope.header(record.headers(), OutboxEventEnvelope.HEADER_EVENT_TYPE);
+        if (eventType == null && record.value() instanceof String value) {
+            eventType = peekEventType(value);
+        }
+
+        if (eventType == null || accepted.contains(eventType)) {
+            return false;
+        }
+
+        meterRegistry.counter(METRIC_DISCARDED, "topic", record.topic(), "event.type", eventType).increment();
+        return true;
+    }
+
+    private static String peekEventType(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (FIELD_EVENT_TYPE.equals(field)) {
+                    return valueToken == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            log.debug("[Consumer] Could not peek eventType from record. Error: {}", e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.product.kafka.support;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.product.model.db.entity.OutboxEvent;
+import com.ecommerce.product.util.JsonUtil;
+
+/**
+ * Converts outbox events to and from Kafka records.
+ *
+ * Two wire formats exist:
+ * <ul>
+ * <li>legacy: the whole OutboxEvent serialized as JSON, with payload and
+ * metadata embedded as escaped JSON strings.</li>
+ * <li>compact: eventId, eventType and metadata travel as headers and the record
+ * value is the raw payload JSON.</li>
+ * </ul>
+ * The format written is chosen by kafka.outbox.envelope.format (legacy by
+ * default, until every consumer of our topics reads compact). Both formats are
+ * always accepted when reading; a record is compact if it carries the
+ * eventType header.
+ */
+@Component
+public class OutboxEventEnvelope {
+
+    public static final String HEADER_EVENT_ID = "eventId";
+    public static final String HEADER_EVENT_TYPE = "eventType";
+    public static final String HEADER_METADATA = "metadata";
+
+    private static final String FORMAT_COMPACT = "compact";
+
+    private final JsonUtil jsonUtil;
+    private final boolean writeCompact;
+
+    public OutboxEventEnvelope(JsonUtil jsonUtil,
+            @Value("${kafka.outbox.envelope.format:legacy}") String format) {
+        this.jsonUtil = jsonUtil;
+        this.writeCompact = FORMAT_COMPACT.equalsIgnoreCase(format);
+    }
+
+    public ProducerRecord<String, String> toRecord(OutboxEvent event) {
+        String topic = event.getAggregateType();
+        String key = event.getAggregateId();
+
+        if (!writeCompact) {
+            return new ProducerRecord<>(topic, key, jsonUtil.toJson(event));
+        }
+
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, event.getPayload());
+        record.headers()
+                .add(HEADER_EVENT_ID, bytes(event.getEventId()))
+                .add(HEADER_EVENT_TYPE, bytes(event.getEventType()))
+                .add(HEADER_METADATA, bytes(event.getMetadata()));
+        return record;
+    }
+
+    public OutboxEvent fromRecord(ConsumerRecord<String, String> record) {
+        String eventType = header(record.headers(), HEADER_EVENT_TYPE);
+
+        if (eventType == null) {
+            return jsonUtil.fromJson(record.value(), OutboxEvent.class);
+        }
+
+        return OutboxEvent.builder()
+                .eventId(header(record.headers(), HEADER_EVENT_ID))
+                .aggregateType(record.topic())
+                .aggregateId(record.key())
+                .eventType(eventType)
+                .payload(record.value())
+                .metadata(header(record.headers(), HEADER_METADATA))
+                .build();
+    }
+
+    public static String header(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.product.model.db.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "processed_event")
+public class ProcessedEvent {
+
+    @Id
+    @Column(name = "event_id", nullable = false, length = 36)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @CreationTimestamp
+    @Column(name = "processed_at", nullable = false, updatable = false)
+    private Instant processedAt;
+}
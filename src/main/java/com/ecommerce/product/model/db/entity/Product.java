@@ -3,6 +3,7 @@ package com.ecommerce.product.model.db.entity;
 import java.time.Instant;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.Column;
@@ -14,6 +15,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -23,6 +25,9 @@ import lombok.Setter;
 @NoArgsConstructor
 @Entity
 @Table(name = "products")
+// only write changed columns, so saving e.g. a title never overwrites stock
+// counters changed concurrently by the saga's guarded updates
+@DynamicUpdate
 public class Product {
 
     @Id
@@ -54,6 +59,19 @@ public class Product {
     @Column(name = "stock_reserved", nullable = false)
     private Integer stockReserved;
 
+    @Column(name = "stock_striped", nullable = false)
+    private Boolean stockStriped = false;
+
+    /**
+     * Sums over product_stock_buckets, only set for striped products once
+     * loaded through StockStripingService#loadBucketTotals.
+     */
+    @Transient
+    private Integer bucketStockAvailable;
+
+    @Transient
+    private Integer bucketStockReserved;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -61,4 +79,18 @@ public class Product {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
+
+    /**
+     * Available stock including striped buckets.
+     */
+    public Integer getTotalStockAvailable() {
+        return bucketStockAvailable == null ? stockAvailable : stockAvailable + bucketStockAvailable;
+    }
+
+    /**
+     * Reserved stock including striped buckets.
+     */
+    public Integer getTotalStockReserved() {
+        return bucketStockReserved == null ? stockReserved : stockReserved + bucketStockReserved;
+    }
 }
@@ -0,0 +1,52 @@
+package com.ecommerce.product.model.db.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One slice of a striped product's stock. Reservations of hot products spread
+ * over these rows instead of contending on the single products row.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_stock_buckets")
+@IdClass(ProductStockBucket.Key.class)
+public class ProductStockBucket {
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Id
+    @Column(name = "bucket_no", nullable = false)
+    private Integer bucketNo;
+
+    @Column(name = "stock_available", nullable = false)
+    private Integer stockAvailable;
+
+    @Column(name = "stock_reserved", nullable = false)
+    private Integer stockReserved;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long productId;
+        private Integer bucketNo;
+    }
+}
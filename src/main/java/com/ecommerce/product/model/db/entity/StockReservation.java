@@ -0,0 +1,71 @@
+package com.ecommerce.product.model.db.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One line of what an order actually reserved: which product, how much, and
+ * where the stock was taken from (holder: ROW, BUCKET or ENGINE).
+ */
+@Entity
+@Table(name = "stock_reservation")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    public static final String HOLDER_ROW = "ROW";
+    public static final String HOLDER_BUCKET = "BUCKET";
+    public static final String HOLDER_ENGINE = "ENGINE";
+
+    public static final String STATE_RESERVED = "RESERVED";
+    public static final String STATE_CONFIRMED = "CONFIRMED";
+    public static final String STATE_RELEASED = "RELEASED";
+    public static final String STATE_EXPIRED = "EXPIRED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, length = 10)
+    private String holder;
+
+    @Column(name = "bucket_no")
+    private Integer bucketNo;
+
+    @Column(nullable = false, length = 20)
+    private String state;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.product.model.db.projection;
+
+/**
+ * Number of products in one (category, price range) group; priceRange is the
+ * ordinal of PriceRange.
+ */
+public interface ProductFacetRow {
+
+    Long getCategoryId();
+
+    Integer getPriceRange();
+
+    Long getProducts();
+}
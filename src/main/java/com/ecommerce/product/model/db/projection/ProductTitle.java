@@ -0,0 +1,7 @@
+package com.ecommerce.product.model.db.projection;
+
+/**
+ * Id and title of a product, read without the rest of the row.
+ */
+public record ProductTitle(Long id, String title) {
+}
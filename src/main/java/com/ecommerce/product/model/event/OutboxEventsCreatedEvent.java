@@ -0,0 +1,9 @@
+package com.ecommerce.product.model.event;
+
+/**
+ * Published inside a transaction that inserted outbox_event rows. Listeners
+ * bound to AFTER_COMMIT use it to publish them without waiting for the next
+ * poll.
+ */
+public record OutboxEventsCreatedEvent(int count) {
+}
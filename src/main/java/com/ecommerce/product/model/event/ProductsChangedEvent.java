@@ -0,0 +1,23 @@
+package com.ecommerce.product.model.event;
+
+import java.util.Collection;
+
+/**
+ * Published inside a transaction that changed what the public product views
+ * show. Listeners bound to AFTER_COMMIT drop or rebuild their copies; those
+ * that only look at the catalogue (title, description, category, price) can
+ * skip stock-only changes, which the saga publishes at order rate.
+ */
+public record ProductsChangedEvent(Collection<Long> productIds, boolean stockOnly) {
+
+    /**
+     * Created, edited or deleted by the seller.
+     */
+    public static ProductsChangedEvent catalogue(Collection<Long> productIds) {
+        return new ProductsChangedEvent(productIds, false);
+    }
+
+    public static ProductsChangedEvent stock(Collection<Long> productIds) {
+        return new ProductsChangedEvent(productIds, true);
+    }
+}
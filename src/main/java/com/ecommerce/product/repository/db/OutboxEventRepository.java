@@ -1,14 +1,54 @@
 package com.ecommerce.product.repository.db;
 
+import java.util.Collection;
 import java.util.List;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ecommerce.product.model.db.entity.OutboxEvent;
 
 @Repository
-public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
-    List<OutboxEvent> findByStatusOrderByUpdatedAtAsc(String status, Pageable pageable);
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    /**
+     * Locks up to {@code limit} pending events that nobody holds a live lease on.
+     * Rows locked by another replica's claim are skipped instead of waited for.
+     *
+     * Only the oldest PENDING event of each aggregate is claimable: its
+     * successors wait until it is SENT, even while it is locked or leased by
+     * another replica, so events of one aggregate are never published
+     * concurrently or out of order.
+     */
+    @Query(value = "SELECT * FROM outbox_event e WHERE e.status = 'PENDING' AND (e.lease_expires_at IS NULL OR e.lease_expires_at < NOW(3)) "
+            + "AND NOT EXISTS (SELECT 1 FROM outbox_event o WHERE o.aggregate_id = e.aggregate_id AND o.status = 'PENDING' AND o.id < e.id) "
+            + "ORDER BY e.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> findClaimable(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_event SET lease_owner = :owner, lease_expires_at = DATE_ADD(NOW(3), INTERVAL :leaseMs * 1000 MICROSECOND) WHERE id IN (:ids)", nativeQuery = true)
+    int lease(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_event SET lease_expires_at = NULL WHERE id IN (:ids) AND lease_owner = :owner AND status = 'PENDING'", nativeQuery = true)
+    int releaseLease(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    /**
+     * Only rows still leased to {@code owner}: a row whose lease expired and
+     * was claimed by another replica is that replica's to mark.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_event SET status = 'SENT' WHERE id IN (:ids) AND lease_owner = :owner", nativeQuery = true)
+    int markAsSent(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM outbox_event WHERE id IN (:ids) AND status = 'SENT'", nativeQuery = true)
+    int deleteSentByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,15 @@
+package com.ecommerce.product.repository.db;
+
+import java.util.List;
+
+import com.ecommerce.product.model.db.entity.OutboxEvent;
+
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * Inserts all events with one JDBC batch. IDENTITY ids prevent Hibernate
+     * from batching inserts, so this bypasses the persistence context; the
+     * given objects are not updated with their generated ids.
+     */
+    void insertAll(List<OutboxEvent> events);
+}
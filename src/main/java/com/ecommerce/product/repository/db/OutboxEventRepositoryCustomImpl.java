@@ -0,0 +1,36 @@
+package com.ecommerce.product.repository.db;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ecommerce.product.model.db.entity.OutboxEvent;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_event "
+            + "(event_id, aggregate_type, aggregate_id, event_type, payload, metadata, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getEventId());
+            ps.setString(2, event.getAggregateType());
+            ps.setString(3, event.getAggregateId());
+            ps.setString(4, event.getEventType());
+            ps.setString(5, event.getPayload());
+            ps.setString(6, event.getMetadata());
+            ps.setString(7, event.getStatus());
+        });
+    }
+}
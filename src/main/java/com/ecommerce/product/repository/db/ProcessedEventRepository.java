@@ -0,0 +1,32 @@
+package com.ecommerce.product.repository.db;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.product.model.db.entity.ProcessedEvent;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+
+    /**
+     * Records the event as processed. Returns 0 if it was already recorded.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO processed_event (event_id, event_type) VALUES (:eventId, :eventType)", nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") String eventId, @Param("eventType") String eventType);
+
+    /**
+     * Deletes up to {@code limit} of the oldest rows processed before
+     * {@code cutoff}, walking idx_processed_at.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM processed_event WHERE processed_at < :cutoff ORDER BY processed_at LIMIT :limit", nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
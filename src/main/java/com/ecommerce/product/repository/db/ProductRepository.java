@@ -1,26 +1,152 @@
 package com.ecommerce.product.repository.db;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.model.db.projection.ProductFacetRow;
+import com.ecommerce.product.model.db.projection.ProductTitle;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     @Override
     Page<Product> findAll(Pageable pageable);
 
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
-    @Query(value = "SELECT * FROM products p WHERE MATCH(p.title, p.description) AGAINST (:query IN BOOLEAN MODE)", countQuery = "SELECT COUNT(*) FROM products p WHERE MATCH(p.title, p.description) AGAINST (:query IN BOOLEAN MODE)", nativeQuery = true)
-    Page<Product> searchByTitleAndDescription(@Param("query") String query, Pageable pageable);
+    /**
+     * Full-text search; the filters are optional (null = not filtered). The
+     * slice and count variants below take the same filters.
+     */
+    @Query(value = "SELECT * FROM products p WHERE MATCH(p.title, p.description) AGAINST (:query IN BOOLEAN MODE) AND (:categoryId IS NULL OR p.category_id = :categoryId) AND (:minPrice IS NULL OR p.price >= :minPrice) AND (:maxPrice IS NULL OR p.price < :maxPrice)", countQuery = "SELECT COUNT(*) FROM products p WHERE MATCH(p.title, p.description) AGAINST (:query IN BOOLEAN MODE) AND (:categoryId IS NULL OR p.category_id = :categoryId) AND (:minPrice IS NULL OR p.price >= :minPrice) AND (:maxPrice IS NULL OR p.price < :maxPrice)", nativeQuery = true)
+    Page<Product> searchByTitleAndDescription(@Param("query") String query, @Param("categoryId") Long categoryId,
+            @Param("minPrice") Long minPrice, @Param("maxPrice") Long maxPrice, Pageable pageable);
 
     Page<Product> findBySellerAdminId(Long sellerAdminId, Pageable pageable);
 
     Page<Product> findBySellerAdminIdAndCategoryId(Long sellerAdminId, Long categoryId, Pageable pageable);
+
+    /**
+     * Slice variant of {@link #findAll(Pageable)}, like the ones below: the
+     * OFFSET page without its COUNT(*), limit + 1 rows tell whether a next
+     * page exists. Totals, if wanted, come from ProductCountEstimator through
+     * the count queries further down.
+     */
+    Slice<Product> findSliceBy(Pageable pageable);
+
+    Slice<Product> findSliceByCategoryId(Long categoryId, Pageable pageable);
+
+    @Query(value = "SELECT * FROM products p WHERE MATCH(p.title, p.description) AGAINST (:query IN BOOLEAN MODE) AND (:categoryId IS NULL OR p.category_id = :categoryId) AND (:minPrice IS NULL OR p.price >= :minPrice) AND (:maxPrice IS NULL OR p.price < :maxPrice)", nativeQuery = true)
+    Slice<Product> searchSliceByTitleAndDescription(@Param("query") String query, @Param("categoryId") Long categoryId,
+            @Param("minPrice") Long minPrice, @Param("maxPrice") Long maxPrice, Pageable pageable);
+
+    Slice<Product> findSliceBySellerAdminId(Long sellerAdminId, Pageable pageable);
+
+    Slice<Product> findSliceBySellerAdminIdAndCategoryId(Long sellerAdminId, Long categoryId, Pageable pageable);
+
+    long countByCategoryId(Long categoryId);
+
+    long countBySellerAdminId(Long sellerAdminId);
+
+    long countBySellerAdminIdAndCategoryId(Long sellerAdminId, Long categoryId);
+
+    /**
+     * Search facets in one pass over the matches: products per category and
+     * price range, unfiltered (the facet filters are applied in memory). The
+     * range is INTERVAL(price, PriceRange.BOUNDS), i.e. the PriceRange ordinal.
+     */
+    @Query(value = "SELECT p.category_id AS categoryId, INTERVAL(p.price, :priceBounds) AS priceRange, COUNT(*) AS products "
+            + "FROM products p WHERE MATCH(p.title, p.description) AGAINST (:query IN BOOLEAN MODE) GROUP BY categoryId, priceRange", nativeQuery = true)
+    List<ProductFacetRow> countFacetsByFullText(@Param("query") String query,
+            @Param("priceBounds") Collection<Long> priceBounds);
+
+    /**
+     * Keyset variant of {@link #findAll(Pageable)}, like the ones below: no
+     * OFFSET and no COUNT(*), it seeks past the (sort key, id) of the
+     * ScrollPosition and fetches limit + 1 rows to know whether more follow.
+     */
+    Window<Product> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByCategoryId(Long categoryId, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findBySellerAdminId(Long sellerAdminId, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findBySellerAdminIdAndCategoryId(Long sellerAdminId, Long categoryId, ScrollPosition position,
+            Sort sort, Limit limit);
+
+    /**
+     * Titles only, for the suggestion trie: scanned by id at startup, then
+     * re-read for the products a change touched.
+     */
+    List<ProductTitle> findTitlesByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<ProductTitle> findTitlesByIdIn(Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :productId")
+    Optional<Product> findByIdForUpdate(@Param("productId") Long productId);
+
+    /**
+     * Plain (non-locking) read of which of the given products are striped.
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.stockStriped = true")
+    List<Long> findStripedIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads and row-locks (SELECT ... FOR UPDATE) the given non-striped products
+     * in id order. Striped products are left out so their hot row is not locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Product> findAllByIdInAndStockStripedFalseOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Moves {@code quantity} from available to reserved stock, only if enough is
+     * available. Returns the number of affected rows (0 = not found or
+     * insufficient stock).
+     */
+    @Modifying
+    @Query(value = "UPDATE products SET stock_available = stock_available - :quantity, stock_reserved = stock_reserved + :quantity WHERE id = :productId AND stock_available >= :quantity", nativeQuery = true)
+    int reserveStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Reverts a reservation made by {@link #reserveStock(Long, int)} within the
+     * same transaction.
+     */
+    @Modifying
+    @Query(value = "UPDATE products SET stock_available = stock_available + :quantity, stock_reserved = stock_reserved - :quantity WHERE id = :productId", nativeQuery = true)
+    int unreserveStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Removes {@code quantity} from reserved stock once the order is paid.
+     * Returns 0 if less than {@code quantity} is reserved.
+     */
+    @Modifying
+    @Query(value = "UPDATE products SET stock_reserved = stock_reserved - :quantity WHERE id = :productId AND stock_reserved >= :quantity", nativeQuery = true)
+    int confirmReservedStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Returns {@code quantity} from reserved to available stock when the order
+     * is cancelled. Returns 0 if less than {@code quantity} is reserved.
+     */
+    @Modifying
+    @Query(value = "UPDATE products SET stock_available = stock_available + :quantity, stock_reserved = stock_reserved - :quantity WHERE id = :productId AND stock_reserved >= :quantity", nativeQuery = true)
+    int releaseReservedStock(@Param("productId") Long productId, @Param("quantity") int quantity);
 }
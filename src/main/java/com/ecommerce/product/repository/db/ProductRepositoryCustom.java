@@ -0,0 +1,15 @@
+package com.ecommerce.product.repository.db;
+
+import java.util.List;
+
+import com.ecommerce.product.model.db.entity.Product;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Inserts all products with one JDBC batch and sets their generated ids.
+     * Hibernate cannot batch IDENTITY inserts; the driver can, and with
+     * rewriteBatchedStatements it still returns the AUTO_INCREMENT keys.
+     */
+    void insertAll(List<Product> products);
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.product.repository.db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import com.ecommerce.product.model.db.entity.Product;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO products "
+            + "(seller_admin_id, category_id, title, description, price, stock_available, stock_reserved, "
+            + "stock_striped, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+
+        // what @CreationTimestamp / @UpdateTimestamp would have set
+        Timestamp now = Timestamp.from(Instant.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        ps.setLong(1, product.getSellerAdminId());
+                        ps.setLong(2, product.getCategoryId());
+                        ps.setString(3, product.getTitle());
+                        if (product.getDescription() == null) {
+                            ps.setNull(4, Types.VARCHAR);
+                        } else {
+                            ps.setString(4, product.getDescription());
+                        }
+                        ps.setLong(5, product.getPrice());
+                        ps.setInt(6, product.getStockAvailable());
+                        ps.setInt(7, product.getStockReserved());
+                        ps.setBoolean(8, Boolean.TRUE.equals(product.getStockStriped()));
+                        ps.setTimestamp(9, now);
+                        ps.setTimestamp(10, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.product.repository.db;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ecommerce.product.model.db.entity.ProductStockBucket;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ProductStockBucketRepository extends JpaRepository<ProductStockBucket, ProductStockBucket.Key> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ProductStockBucket> findByProductIdOrderByBucketNoAsc(Long productId);
+
+    long countByProductId(Long productId);
+
+    @Query("SELECT b.productId AS productId, COUNT(b) AS buckets FROM ProductStockBucket b GROUP BY b.productId")
+    List<BucketCount> findBucketCounts();
+
+    @Query("SELECT b.productId AS productId, SUM(b.stockAvailable) AS stockAvailable, SUM(b.stockReserved) AS stockReserved "
+            + "FROM ProductStockBucket b WHERE b.productId IN :productIds GROUP BY b.productId")
+    List<BucketTotals> sumByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Row-locks all buckets of the product in bucket order and reads their
+     * current counters (a projection, so values changed by the guarded updates
+     * below are never served from the persistence context).
+     */
+    @Query(value = "SELECT bucket_no AS bucketNo, stock_available AS stockAvailable, stock_reserved AS stockReserved "
+            + "FROM product_stock_buckets WHERE product_id = :productId ORDER BY bucket_no FOR UPDATE", nativeQuery = true)
+    List<BucketStock> lockStock(@Param("productId") Long productId);
+
+    @Modifying
+    @Query(value = "UPDATE product_stock_buckets SET stock_available = stock_available - :quantity, stock_reserved = stock_reserved + :quantity WHERE product_id = :productId AND bucket_no = :bucketNo AND stock_available >= :quantity", nativeQuery = true)
+    int reserveStock(@Param("productId") Long productId, @Param("bucketNo") int bucketNo, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query(value = "UPDATE product_stock_buckets SET stock_available = stock_available + :quantity, stock_reserved = stock_reserved - :quantity WHERE product_id = :productId AND bucket_no = :bucketNo", nativeQuery = true)
+    int unreserveStock(@Param("productId") Long productId, @Param("bucketNo") int bucketNo, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query(value = "UPDATE product_stock_buckets SET stock_reserved = stock_reserved - :quantity WHERE product_id = :productId AND bucket_no = :bucketNo AND stock_reserved >= :quantity", nativeQuery = true)
+    int confirmReservedStock(@Param("productId") Long productId, @Param("bucketNo") int bucketNo, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query(value = "UPDATE product_stock_buckets SET stock_available = stock_available + :quantity, stock_reserved = stock_reserved - :quantity WHERE product_id = :productId AND bucket_no = :bucketNo AND stock_reserved >= :quantity", nativeQuery = true)
+    int releaseReservedStock(@Param("productId") Long productId, @Param("bucketNo") int bucketNo, @Param("quantity") int quantity);
+
+    interface BucketCount {
+        Long getProductId();
+
+        Long getBuckets();
+    }
+
+    interface BucketStock {
+        Integer getBucketNo();
+
+        Integer getStockAvailable();
+
+        Integer getStockReserved();
+    }
+
+    interface BucketTotals {
+        Long getProductId();
+
+        Long getStockAvailable();
+
+        Long getStockReserved();
+    }
+}
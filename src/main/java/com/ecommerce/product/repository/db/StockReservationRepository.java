@@ -0,0 +1,105 @@
+package com.ecommerce.product.repository.db;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ecommerce.product.model.db.entity.StockReservation;
+
+/**
+ * The settle queries move stock and the ledger state in one multi-table
+ * UPDATE. STRAIGHT_JOIN drives them from the ledger's (order_id, product_id)
+ * index, so product rows are locked in ascending id order like everywhere
+ * else. Only RESERVED lines whose counters still hold the quantity match;
+ * anything left RESERVED afterwards is an inconsistency.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long>, StockReservationRepositoryCustom {
+
+    boolean existsByOrderId(Long orderId);
+
+    long countByOrderIdAndState(Long orderId, String state);
+
+    long countByIdInAndState(Collection<Long> ids, String state);
+
+    List<StockReservation> findByOrderIdAndHolderAndState(Long orderId, String holder, String state);
+
+    List<StockReservation> findByIdInAndHolderAndState(Collection<Long> ids, String holder, String state);
+
+    @Modifying
+    @Query(value = "UPDATE stock_reservation r STRAIGHT_JOIN products p ON p.id = r.product_id "
+            + "SET p.stock_reserved = p.stock_reserved - r.quantity, r.state = 'CONFIRMED', r.updated_at = NOW(3) "
+            + "WHERE r.order_id = :orderId AND r.holder = 'ROW' AND r.state = 'RESERVED' AND p.stock_reserved >= r.quantity", nativeQuery = true)
+    int confirmRowReservations(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query(value = "UPDATE stock_reservation r STRAIGHT_JOIN products p ON p.id = r.product_id "
+            + "SET p.stock_available = p.stock_available + r.quantity, p.stock_reserved = p.stock_reserved - r.quantity, "
+            + "r.state = 'RELEASED', r.updated_at = NOW(3) "
+            + "WHERE r.order_id = :orderId AND r.holder = 'ROW' AND r.state = 'RESERVED' AND p.stock_reserved >= r.quantity", nativeQuery = true)
+    int releaseRowReservations(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query(value = "UPDATE stock_reservation r STRAIGHT_JOIN product_stock_buckets b ON b.product_id = r.product_id AND b.bucket_no = r.bucket_no "
+            + "SET b.stock_reserved = b.stock_reserved - r.quantity, r.state = 'CONFIRMED', r.updated_at = NOW(3) "
+            + "WHERE r.order_id = :orderId AND r.holder = 'BUCKET' AND r.state = 'RESERVED' AND b.stock_reserved >= r.quantity", nativeQuery = true)
+    int confirmBucketReservations(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query(value = "UPDATE stock_reservation r STRAIGHT_JOIN product_stock_buckets b ON b.product_id = r.product_id AND b.bucket_no = r.bucket_no "
+            + "SET b.stock_available = b.stock_available + r.quantity, b.stock_reserved = b.stock_reserved - r.quantity, "
+            + "r.state = 'RELEASED', r.updated_at = NOW(3) "
+            + "WHERE r.order_id = :orderId AND r.holder = 'BUCKET' AND r.state = 'RESERVED' AND b.stock_reserved >= r.quantity", nativeQuery = true)
+    int releaseBucketReservations(@Param("orderId") Long orderId);
+
+    /**
+     * Oldest orders with open lines created before {@code cutoff}; may repeat an
+     * order id, callers dedupe.
+     */
+    @Query(value = "SELECT order_id FROM stock_reservation WHERE state = 'RESERVED' AND created_at < :cutoff ORDER BY created_at LIMIT :limit", nativeQuery = true)
+    List<Long> findExpiredOrderIds(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    /**
+     * Locks the open lines of the given orders. Lines another replica is
+     * already sweeping are skipped instead of waited for.
+     */
+    @Query(value = "SELECT * FROM stock_reservation WHERE order_id IN (:orderIds) AND state = 'RESERVED' ORDER BY order_id, product_id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StockReservation> lockOpenLines(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query(value = "SELECT order_id AS orderId, COUNT(*) AS openLines FROM stock_reservation WHERE order_id IN (:orderIds) AND state = 'RESERVED' GROUP BY order_id", nativeQuery = true)
+    List<OpenLineCount> countOpenLines(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "UPDATE stock_reservation r STRAIGHT_JOIN products p ON p.id = r.product_id "
+            + "SET p.stock_available = p.stock_available + r.quantity, p.stock_reserved = p.stock_reserved - r.quantity, "
+            + "r.state = :state, r.updated_at = NOW(3) "
+            + "WHERE r.id IN (:ids) AND r.holder = 'ROW' AND r.state = 'RESERVED' AND p.stock_reserved >= r.quantity", nativeQuery = true)
+    int releaseRowReservationsByIds(@Param("ids") Collection<Long> ids, @Param("state") String state);
+
+    @Modifying
+    @Query(value = "UPDATE stock_reservation r STRAIGHT_JOIN product_stock_buckets b ON b.product_id = r.product_id AND b.bucket_no = r.bucket_no "
+            + "SET b.stock_available = b.stock_available + r.quantity, b.stock_reserved = b.stock_reserved - r.quantity, "
+            + "r.state = :state, r.updated_at = NOW(3) "
+            + "WHERE r.id IN (:ids) AND r.holder = 'BUCKET' AND r.state = 'RESERVED' AND b.stock_reserved >= r.quantity", nativeQuery = true)
+    int releaseBucketReservationsByIds(@Param("ids") Collection<Long> ids, @Param("state") String state);
+
+    /**
+     * State-only transition, for lines whose counters were settled elsewhere
+     * (the in-memory engine).
+     */
+    @Modifying
+    @Query(value = "UPDATE stock_reservation SET state = :state, updated_at = NOW(3) WHERE id IN (:ids) AND state = 'RESERVED'", nativeQuery = true)
+    int transitionReserved(@Param("ids") Collection<Long> ids, @Param("state") String state);
+
+    interface OpenLineCount {
+        Long getOrderId();
+
+        Long getOpenLines();
+    }
+}
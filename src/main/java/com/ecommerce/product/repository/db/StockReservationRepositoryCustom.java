@@ -0,0 +1,14 @@
+package com.ecommerce.product.repository.db;
+
+import java.util.List;
+
+import com.ecommerce.product.model.db.entity.StockReservation;
+
+public interface StockReservationRepositoryCustom {
+
+    /**
+     * Inserts all ledger lines with one JDBC batch, like
+     * OutboxEventRepositoryCustom#insertAll.
+     */
+    void insertAll(List<StockReservation> reservations);
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.product.repository.db;
+
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ecommerce.product.model.db.entity.StockReservation;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class StockReservationRepositoryCustomImpl implements StockReservationRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO stock_reservation "
+            + "(order_id, product_id, quantity, holder, bucket_no, state) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setLong(1, reservation.getOrderId());
+            ps.setLong(2, reservation.getProductId());
+            ps.setInt(3, reservation.getQuantity());
+            ps.setString(4, reservation.getHolder());
+            if (reservation.getBucketNo() == null) {
+                ps.setNull(5, Types.INTEGER);
+            } else {
+                ps.setInt(5, reservation.getBucketNo());
+            }
+            ps.setString(6, reservation.getState());
+        });
+    }
+}
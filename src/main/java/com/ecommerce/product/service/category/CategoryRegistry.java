@@ -0,0 +1,155 @@
+package com.ecommerce.product.service.category;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.product.model.db.entity.Category;
+import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.repository.db.CategoryRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory copy of the categories table, which only changes through
+ * migrations or manual inserts.
+ *
+ * Loaded at startup and reloaded every category.registry.refresh.ms; a reload
+ * that found changes swaps in a whole new snapshot, so readers never see a
+ * half-updated one. The Category instances are detached copies shared by all
+ * threads: never modify them.
+ *
+ * An unknown id also triggers a reload on the request thread, at most once per
+ * category.registry.miss.refresh.ms across all threads. Within that window
+ * the id is simply not found, so requests for made-up ids cannot turn every
+ * call into a full table read.
+ */
+@Slf4j
+@Component
+public class CategoryRegistry {
+
+    private final CategoryRepository categoryRepository;
+    private final long missRefreshNanos;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(List.of(), Map.of()));
+    private final AtomicLong lastMissRefresh;
+
+    public CategoryRegistry(CategoryRepository categoryRepository,
+            @Value("${category.registry.miss.refresh.ms:5000}") long missRefreshMs) {
+        this.categoryRepository = categoryRepository;
+        this.missRefreshNanos = TimeUnit.MILLISECONDS.toNanos(missRefreshMs);
+        this.lastMissRefresh = new AtomicLong(System.nanoTime() - missRefreshNanos);
+    }
+
+    /**
+     * @param all    sorted by id
+     * @param byId   same instances, by id
+     */
+    public record Snapshot(List<Category> all, Map<Long, Category> byId) {
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${category.registry.refresh.ms:60000}", initialDelayString = "${category.registry.refresh.ms:60000}")
+    public synchronized void refresh() {
+        List<Category> loaded = categoryRepository.findAll().stream()
+                .map(CategoryRegistry::copyOf)
+                .sorted(Comparator.comparing(Category::getId))
+                .toList();
+
+        if (sameCategories(snapshot.get().all(), loaded)) {
+            return;
+        }
+
+        Map<Long, Category> byId = loaded.stream()
+                .collect(Collectors.toUnmodifiableMap(Category::getId, Function.identity()));
+        snapshot.set(new Snapshot(loaded, byId));
+
+        log.info("[Category] Loaded {} categories into the registry.", loaded.size());
+    }
+
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * @return the category, or null if it is not in the current snapshot.
+     */
+    public Category get(Long categoryId) {
+        return snapshot.get().byId().get(categoryId);
+    }
+
+    /**
+     * For validating writes: an id missing from the snapshot may trigger a
+     * reload first (see refreshOnMiss), so a category inserted since the last
+     * refresh is usually accepted right away.
+     */
+    public boolean exists(Long categoryId) {
+        if (get(categoryId) != null) {
+            return true;
+        }
+        refreshOnMiss();
+        return get(categoryId) != null;
+    }
+
+    /**
+     * Points each product's category at the registry's copy, so building a DTO
+     * does not initialize the lazy proxy (one SELECT per product). A category
+     * missing from the snapshot costs at most one reload for the whole page
+     * (see refreshOnMiss); if it is still missing, those products keep their
+     * proxy.
+     */
+    public void attach(Collection<Product> products) {
+        Map<Long, Category> loaded = snapshot.get().byId();
+        if (products.stream().anyMatch(product -> !loaded.containsKey(product.getCategoryId()))) {
+            refreshOnMiss();
+        }
+
+        Map<Long, Category> byId = snapshot.get().byId();
+        for (Product product : products) {
+            Category category = byId.get(product.getCategoryId());
+            if (category != null) {
+                product.setCategory(category);
+            }
+        }
+    }
+
+    // one thread per window reloads; the others go on with the current snapshot
+    private void refreshOnMiss() {
+        long last = lastMissRefresh.get();
+        long now = System.nanoTime();
+        if (now - last >= missRefreshNanos && lastMissRefresh.compareAndSet(last, now)) {
+            refresh();
+        }
+    }
+
+    private static Category copyOf(Category entity) {
+        Category copy = new Category();
+        copy.setId(entity.getId());
+        copy.setName(entity.getName());
+        return copy;
+    }
+
+    private static boolean sameCategories(List<Category> current, List<Category> loaded) {
+        if (current.size() != loaded.size()) {
+            return false;
+        }
+        for (int i = 0; i < current.size(); i++) {
+            if (!current.get(i).getId().equals(loaded.get(i).getId())
+                    || !current.get(i).getName().equals(loaded.get(i).getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,9 +1,12 @@
 package com.ecommerce.product.service.categorybrowse;
 
-import java.util.List;
+public interface CategoryBrowseService {
 
-import com.ecommerce.product.controller.categorybrowse.dto.CategoryResponse;
+    /**
+     * The serialized GlobalResponse of all categories, and its ETag.
+     */
+    record CategoryListBody(byte[] json, String etag) {
+    }
 
-public interface CategoryBrowseService {
-    List<CategoryResponse> getAllCategories();
+    CategoryListBody getAllCategories();
 }
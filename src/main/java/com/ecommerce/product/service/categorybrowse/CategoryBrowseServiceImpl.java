@@ -1,14 +1,16 @@
 package com.ecommerce.product.service.categorybrowse;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import com.ecommerce.product.controller.categorybrowse.dto.CategoryResponse;
-import com.ecommerce.product.model.db.entity.Category;
-import com.ecommerce.product.repository.db.CategoryRepository;
+import com.ecommerce.product.framework.response.GlobalResponse;
+import com.ecommerce.product.service.category.CategoryRegistry;
+import com.ecommerce.product.service.category.CategoryRegistry.Snapshot;
+import com.ecommerce.product.util.JsonUtil;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,19 +18,38 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class CategoryBrowseServiceImpl implements CategoryBrowseService {
 
-    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final JsonUtil jsonUtil;
 
-    @Override
-    public List<CategoryResponse> getAllCategories() {
-        log.info("Fetching all categories");
+    // body rendered from `source`; re-rendered once the registry swaps snapshots
+    private volatile RenderedBody rendered;
+
+    private record RenderedBody(Snapshot source, CategoryListBody body) {
+    }
 
-        List<Category> categories = categoryRepository.findAll();
+    @Override
+    public CategoryListBody getAllCategories() {
+        Snapshot snapshot = categoryRegistry.snapshot();
+        RenderedBody current = rendered;
+
+        if (current == null || current.source() != snapshot) {
+            current = new RenderedBody(snapshot, render(snapshot));
+            rendered = current;
+        }
+        return current.body();
+    }
 
-        return categories.stream()
+    private CategoryListBody render(Snapshot snapshot) {
+        List<CategoryResponse> categories = snapshot.all().stream()
                 .map(CategoryResponse::new)
-                .collect(Collectors.toList());
+                .toList();
+        byte[] json = jsonUtil.toJson(GlobalResponse.success(categories)).getBytes(StandardCharsets.UTF_8);
+        // same digest as Spring's ShallowEtagHeaderFilter, computed once per snapshot
+        String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+
+        log.info("Rendered category list of {} categories (ETag: {})", categories.size(), etag);
+        return new CategoryListBody(json, etag);
     }
 }
@@ -0,0 +1,16 @@
+package com.ecommerce.product.service.pagination;
+
+/**
+ * How an OFFSET-paginated listing reports its total.
+ */
+public enum PageTotal {
+
+    /** COUNT(*) alongside every page (the default). */
+    EXACT,
+
+    /** Total from ProductCountEstimator's cache, refreshed in the background. */
+    APPROXIMATE,
+
+    /** No total at all, only whether a next page exists. */
+    NONE
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.product.service.pagination;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.search.PriceRange;
+import com.ecommerce.product.service.search.SearchFilter;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Approximate listing totals, so PaginationMeta can be served without a
+ * COUNT(*) on the request path.
+ *
+ * Counts are cached per listing (all products, a category, a seller or a
+ * seller's category) and recounted in the background once older than
+ * product.count.refresh.ms; requests keep getting the previous value
+ * meanwhile. The very first request of a listing only starts the count and
+ * gets no estimate, and so does any request while productCountExecutor's
+ * queue is full.
+ *
+ * Full-text listings are never counted: every distinct query would be its own
+ * MATCH ... AGAINST COUNT(*), whose results are rarely asked for twice. They
+ * only get a total on their last page, where the slice itself gives it.
+ */
+@Slf4j
+@Component
+public class ProductCountEstimator {
+
+    /**
+     * One listing; unset fields are not filtered on.
+     */
+    public record Listing(Long categoryId, Long sellerAdminId, String fullTextQuery, PriceRange priceRange) {
+
+        public static Listing of(Long categoryId) {
+            return new Listing(categoryId, null, null, null);
+        }
+
+        public static Listing ofSeller(Long sellerAdminId, Long categoryId) {
+            return new Listing(categoryId, sellerAdminId, null, null);
+        }
+
+        public static Listing ofSearch(String fullTextQuery, SearchFilter filter) {
+            return new Listing(filter.categoryId(), null, fullTextQuery, filter.priceRange());
+        }
+    }
+
+    private static final String CACHE_NAME = "productCount";
+
+    private final ProductRepository productRepository;
+    private final AsyncLoadingCache<Listing, Long> counts;
+
+    public ProductCountEstimator(ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Qualifier("productCountExecutor") Executor countExecutor,
+            @Value("${product.count.max.size:10000}") long maxSize,
+            @Value("${product.count.refresh.ms:60000}") long refreshMs,
+            @Value("${product.count.expire.ms:600000}") long expireMs) {
+        this.productRepository = productRepository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofMillis(refreshMs))
+                .expireAfterAccess(Duration.ofMillis(expireMs))
+                .executor(countExecutor)
+                .recordStats()
+                .buildAsync(this::count);
+        CaffeineCacheMetrics.monitor(meterRegistry, counts.synchronous(), CACHE_NAME);
+    }
+
+    /**
+     * @return the cached total, or null while it is still being counted (and
+     *         always for full-text listings).
+     */
+    public Long estimate(Listing listing) {
+        if (listing.fullTextQuery() != null) {
+            return null;
+        }
+
+        CompletableFuture<Long> total;
+        try {
+            total = counts.get(listing);
+        } catch (RejectedExecutionException e) {
+            // counts are backed up; the next request of this listing tries again
+            log.debug("[Pagination] Count queue full, no estimate for {}.", listing);
+            return null;
+        }
+        return total.isDone() && !total.isCompletedExceptionally() ? total.join() : null;
+    }
+
+    /**
+     * The slice as a page with the estimated total, or the slice itself while
+     * there is no estimate yet. The last page needs no estimate: the listing
+     * ends exactly there. Elsewhere the estimate is raised where the slice
+     * proves it too low (the listing cannot end before the slice does).
+     */
+    public <T> Slice<T> withEstimate(Slice<T> slice, Listing listing) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext() && slice.hasContent()) {
+            return new PageImpl<>(slice.getContent(), slice.getPageable(), seen);
+        }
+
+        Long estimate = estimate(listing);
+        if (estimate == null) {
+            return slice;
+        }
+        long total = Math.max(estimate, slice.hasNext() ? seen + 1 : seen);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    private long count(Listing listing) {
+        long started = System.currentTimeMillis();
+        long total;
+
+        if (listing.sellerAdminId() != null) {
+            total = listing.categoryId() != null
+                    ? productRepository.countBySellerAdminIdAndCategoryId(listing.sellerAdminId(), listing.categoryId())
+                    : productRepository.countBySellerAdminId(listing.sellerAdminId());
+        } else {
+            total = listing.categoryId() != null
+                    ? productRepository.countByCategoryId(listing.categoryId())
+                    : productRepository.count();
+        }
+
+        log.debug("[Pagination] Counted {} products for {} in {} ms.", total, listing,
+                System.currentTimeMillis() - started);
+        return total;
+    }
+}
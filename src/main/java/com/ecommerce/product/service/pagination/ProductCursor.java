@@ -0,0 +1,119 @@
+package com.ecommerce.product.service.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Window;
+
+import com.ecommerce.product.exception.InvalidCursorException;
+import com.ecommerce.product.model.db.entity.Product;
+
+/**
+ * Position in a keyset-paginated product listing: the sort key and id of the
+ * last product returned. Seeking by (sort key, id) uses the composite
+ * indexes of changelog 011 instead of reading and discarding OFFSET rows.
+ *
+ * Clients only see it as an opaque base64url token; the sort travels inside,
+ * so later pages keep the order of the first one.
+ */
+public record ProductCursor(String property, Direction direction, Object lastValue, Long lastId) {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "|";
+
+    // sortable properties (each backed by an index ending in id) and how to read them
+    private static final Map<String, Function<Product, Object>> GETTERS = Map.of(
+            ID, Product::getId,
+            "price", Product::getPrice,
+            "createdAt", Product::getCreatedAt);
+
+    private static final Map<String, Function<String, Object>> PARSERS = Map.of(
+            ID, Long::valueOf,
+            "price", Long::valueOf,
+            "createdAt", value -> Instant.ofEpochMilli(Long.parseLong(value)));
+
+    /**
+     * The order of the first page: the request's single sort property (id,
+     * price or createdAt) with id as tie-breaker, or id ascending by default.
+     */
+    public static Sort firstPageSort(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted()) {
+            return Sort.by(Direction.ASC, ID);
+        }
+
+        if (sort.stream().count() > 1) {
+            throw new InvalidCursorException("Cursor pagination supports a single sort property.");
+        }
+        Sort.Order order = sort.iterator().next();
+        if (!GETTERS.containsKey(order.getProperty())) {
+            throw new InvalidCursorException("Cursor pagination cannot sort by '" + order.getProperty()
+                    + "'. Supported: " + GETTERS.keySet());
+        }
+        return sortOf(order.getProperty(), order.getDirection());
+    }
+
+    public static ProductCursor after(Product last, Sort sort) {
+        Sort.Order order = sort.iterator().next();
+        return new ProductCursor(order.getProperty(), order.getDirection(),
+                GETTERS.get(order.getProperty()).apply(last), last.getId());
+    }
+
+    /**
+     * The window as a page whose cursor points after its last product.
+     */
+    public static CursorPage<Product> page(Window<Product> window, Sort sort) {
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? after(window.getContent().get(window.size() - 1), sort).encode()
+                : null;
+        return new CursorPage<>(window.getContent(), nextCursor);
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4 || !PARSERS.containsKey(parts[0])) {
+                throw new InvalidCursorException("Malformed cursor.");
+            }
+
+            return new ProductCursor(parts[0], Direction.valueOf(parts[1]),
+                    PARSERS.get(parts[0]).apply(parts[2]), Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // bad base64, unknown direction or unparsable number
+            throw new InvalidCursorException("Malformed cursor.");
+        }
+    }
+
+    public String encode() {
+        String value = lastValue instanceof Instant instant ? String.valueOf(instant.toEpochMilli()) : String.valueOf(lastValue);
+        String raw = String.join(SEPARATOR, property, direction.name(), value, String.valueOf(lastId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Sort sort() {
+        return sortOf(property, direction);
+    }
+
+    public KeysetScrollPosition toScrollPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(property, lastValue);
+        keys.put(ID, lastId);
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Sort sortOf(String property, Direction direction) {
+        return ID.equals(property)
+                ? Sort.by(direction, ID)
+                : Sort.by(direction, property).and(Sort.by(direction, ID));
+    }
+}
@@ -0,0 +1,256 @@
+package com.ecommerce.product.service.productchange;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shares catalogue ProductsChangedEvents between instances through the
+ * product_change table.
+ *
+ * ProductSearchIndex, ProductSuggestIndex, SearchResultCache and
+ * ProductDetailCache live in each instance's memory and only hear of the
+ * changes made by that instance. Every catalogue change is therefore also
+ * written to product_change, in the transaction that made it, and every
+ * instance polls the rows of the others and republishes them as local
+ * catalogue events.
+ *
+ * Ids are assigned at insert but become visible at commit, so a poll can see
+ * a row while a lower id is still uncommitted. Such skipped ids are kept as
+ * gaps and re-read on every poll until their row shows up, or for
+ * product.change.feed.gap.timeout.ms (a rolled-back transaction leaves its
+ * ids unused for good). Stock-only changes are not shared; none of the
+ * structures above depend on stock.
+ * Rows are deleted after product.change.feed.retention.hours, in chunks like
+ * ProcessedEventPurger.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "product.change.feed.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductChangeFeed {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long gapTimeoutNanos;
+    private final int maxGaps;
+    private final int batchSize;
+    private final Duration retention;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+    private final String origin = resolveOrigin();
+
+    // highest product_change id this instance has read, and the lower ids not
+    // visible yet (id -> System.nanoTime() first missed); only touched by poll()
+    private long lastId;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    public ProductChangeFeed(JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${product.change.feed.gap.timeout.ms:600000}") long gapTimeoutMs,
+            @Value("${product.change.feed.max.gaps:10000}") int maxGaps,
+            @Value("${product.change.feed.batch.size:500}") int batchSize,
+            @Value("${product.change.feed.retention.hours:24}") long retentionHours,
+            @Value("${product.change.feed.retention.chunk.size:1000}") int chunkSize,
+            @Value("${product.change.feed.retention.chunk.pause.ms:50}") long chunkPauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+        this.maxGaps = maxGaps;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+        this.chunkSize = chunkSize;
+        this.chunkPauseMs = chunkPauseMs;
+    }
+
+    /**
+     * Earlier changes are already in the products table that this instance's
+     * structures are built from. Rows of the last gap timeout are read again,
+     * so changes still uncommitted at startup are waited for like any gap.
+     */
+    @PostConstruct
+    public void initialize() {
+        Long maxId = jdbcTemplate.queryForObject("""
+                SELECT MAX(id) FROM product_change
+                WHERE created_at < TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))
+                """, Long.class, -TimeUnit.NANOSECONDS.toMicros(gapTimeoutNanos));
+        lastId = maxId != null ? maxId : 0;
+        log.info("[ChangeFeed] Following product changes after id {} as {}.", lastId, origin);
+    }
+
+    // BEFORE_COMMIT without fallbackExecution: the rows commit with the change,
+    // and the events poll() republishes outside a transaction are not recorded again
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void record(ProductsChangedEvent event) {
+        if (event.stockOnly() || event.productIds().isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(event.productIds().size());
+        for (Long productId : event.productIds()) {
+            rows.add(new Object[] { productId, origin });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product_change (product_id, origin) VALUES (?, ?)", rows);
+    }
+
+    @Scheduled(fixedDelayString = "${product.change.feed.poll.ms:2000}", initialDelayString = "${product.change.feed.poll.ms:2000}")
+    public synchronized void poll() {
+        try {
+            pollGaps();
+            int read;
+            do {
+                read = pollBatch();
+            } while (read == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("[ChangeFeed] Poll after id {} failed. Error: {}", lastId, e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.change.feed.retention.delay.ms:600000}", initialDelayString = "${product.change.feed.retention.initial.delay.ms:90000}")
+    public void purgeExpiredChanges() {
+        int deleted = 0;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int count = jdbcTemplate.update("""
+                        DELETE FROM product_change
+                        WHERE created_at < TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))
+                        LIMIT ?
+                        """, -retention.toMillis() * 1000, chunkSize);
+                deleted += count;
+
+                if (count < chunkSize) {
+                    break;
+                }
+                pause();
+            }
+        } catch (Exception e) {
+            log.error("[ChangeFeed] product_change retention run failed. Error: {}", e.getMessage(), e);
+        }
+
+        if (deleted > 0) {
+            log.info("[ChangeFeed] Purged {} product changes older than {}.", deleted, retention);
+        }
+    }
+
+    private int pollBatch() {
+        Set<Long> productIds = new LinkedHashSet<>();
+        int[] read = { 0 };
+        long now = System.nanoTime();
+
+        jdbcTemplate.query("""
+                SELECT id, product_id, origin FROM product_change
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """, rs -> {
+            long id = rs.getLong("id");
+            // ids skipped here may belong to transactions that have not committed yet
+            for (long missing = lastId + 1; missing < id; missing++) {
+                addGap(missing, now);
+            }
+            lastId = id;
+            read[0]++;
+            if (!origin.equals(rs.getString("origin"))) {
+                productIds.add(rs.getLong("product_id"));
+            }
+        }, lastId, batchSize);
+
+        apply(productIds);
+        return read[0];
+    }
+
+    private void pollGaps() {
+        if (gaps.isEmpty()) {
+            return;
+        }
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            jdbcTemplate.query("SELECT id, product_id, origin FROM product_change WHERE id IN ("
+                    + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")", rs -> {
+                gaps.remove(rs.getLong("id"));
+                if (!origin.equals(rs.getString("origin"))) {
+                    productIds.add(rs.getLong("product_id"));
+                }
+            }, chunk.toArray());
+        }
+        apply(productIds);
+
+        int expired = 0;
+        long now = System.nanoTime();
+        for (Iterator<Long> missedAt = gaps.values().iterator(); missedAt.hasNext();) {
+            if (now - missedAt.next() < gapTimeoutNanos) {
+                break;
+            }
+            missedAt.remove();
+            expired++;
+        }
+        if (expired > 0) {
+            log.info("[ChangeFeed] Stopped waiting for {} product_change ids (rolled back or never committed).",
+                    expired);
+        }
+    }
+
+    private void addGap(long id, long now) {
+        if (gaps.size() >= maxGaps) {
+            log.warn("[ChangeFeed] Too many product_change ids missing, not waiting for id {}.", id);
+            return;
+        }
+        gaps.put(id, now);
+    }
+
+    private void apply(Set<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            log.debug("[ChangeFeed] Applying {} product changes of other instances up to id {}.",
+                    productIds.size(), lastId);
+            eventPublisher.publishEvent(ProductsChangedEvent.catalogue(productIds));
+        }
+    }
+
+    private void pause() {
+        if (chunkPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String resolveOrigin() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        // suffix keeps origins distinct across restarts of the same host
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.product.service.productimport;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * BufferedReader#readLine with a length cap. A longer line is still read to
+ * its end, so the next call starts on the next line, but only its first
+ * characters are kept: a body without line breaks cannot fill the heap.
+ */
+final class BoundedLineReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean truncated;
+
+    BoundedLineReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the next line without its terminator (\n, \r\n or \r), cut to
+     *         maxChars characters, or null at the end of the input.
+     */
+    String readLine(int maxChars) throws IOException {
+        line.setLength(0);
+        truncated = false;
+        if (!fill()) {
+            return null;
+        }
+
+        while (fill()) {
+            int start = position;
+            while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                position++;
+            }
+            append(start, position, maxChars);
+
+            if (position < limit) {
+                char terminator = buffer[position++];
+                if (terminator == '\r' && fill() && buffer[position] == '\n') {
+                    position++;
+                }
+                break;
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * @return whether the last line read was longer than its maxChars.
+     */
+    boolean truncated() {
+        return truncated;
+    }
+
+    private void append(int start, int end, int maxChars) {
+        int kept = Math.min(end - start, Math.max(0, maxChars - line.length()));
+        line.append(buffer, start, kept);
+        if (kept < end - start) {
+            truncated = true;
+        }
+    }
+
+    // false at the end of the input
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read < 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,194 @@
+package com.ecommerce.product.service.productimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
+import com.ecommerce.product.exception.InvalidImportException;
+
+/**
+ * RFC 4180 CSV with a header row naming the ProductCreateRequest fields
+ * (categoryId, title, price, stockAvailable and optionally description) in
+ * any order. Quoted fields may contain commas, doubled quotes and line
+ * breaks; empty fields are null.
+ *
+ * A record, line breaks included, may be maxRowChars characters long. A
+ * longer one fails its row and is skipped up to the end of the line where it
+ * ran over, so a stray quote costs the rows it swallowed rather than the heap.
+ */
+class CsvProductRowReader implements ProductRowReader {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("categoryId", "title", "price", "stockAvailable");
+    private static final String DESCRIPTION = "description";
+
+    private final BoundedLineReader lines;
+    private final int maxRowChars;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private int columnCount;
+    private long lineNumber;
+    private boolean unterminatedQuote;
+    private boolean tooLong;
+
+    CsvProductRowReader(BufferedReader reader, int maxRowChars) {
+        this.lines = new BoundedLineReader(reader);
+        this.maxRowChars = maxRowChars;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (lineNumber == 0 && !readHeader()) {
+            return null;
+        }
+
+        List<String> fields;
+        long row;
+        do {
+            row = lineNumber + 1;
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        if (tooLong) {
+            return ImportRow.failed(row, "Row is longer than " + maxRowChars + " characters.");
+        }
+        if (unterminatedQuote) {
+            return ImportRow.failed(row, "Unterminated quoted field.");
+        }
+        if (fields.size() != columnCount) {
+            return ImportRow.failed(row, "Expected " + columnCount + " columns, found " + fields.size() + ".");
+        }
+
+        try {
+            return ImportRow.of(row, new ProductCreateRequest(
+                    toLong(fields, "categoryId"),
+                    field(fields, "title"),
+                    field(fields, DESCRIPTION),
+                    toLong(fields, "price"),
+                    toInteger(fields, "stockAvailable")));
+        } catch (NumberFormatException e) {
+            return ImportRow.failed(row, e.getMessage());
+        }
+    }
+
+    // false for an empty body
+    private boolean readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            return false;
+        }
+        if (tooLong) {
+            throw new InvalidImportException("CSV header is longer than " + maxRowChars + " characters");
+        }
+
+        // a BOM written by spreadsheet exports
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        columnCount = header.size();
+
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportException("CSV header is missing columns: " + missing);
+        }
+        return true;
+    }
+
+    private List<String> readRecord() throws IOException {
+        String line = lines.readLine(maxRowChars);
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        unterminatedQuote = false;
+        tooLong = lines.truncated();
+        int length = line.length();
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted || tooLong) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                // a line break inside quotes belongs to the field
+                if (length >= maxRowChars) {
+                    tooLong = true;
+                    fields.add(field.toString());
+                    return fields;
+                }
+                String nextLine = lines.readLine(maxRowChars - length - 1);
+                if (nextLine == null) {
+                    unterminatedQuote = true;
+                    fields.add(field.toString());
+                    return fields;
+                }
+                lineNumber++;
+                tooLong = lines.truncated();
+                length += 1 + nextLine.length();
+                field.append('\n');
+                line = nextLine;
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private Long toLong(List<String> fields, String column) {
+        String value = field(fields, column);
+        try {
+            return value == null ? null : Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(column + " is not a whole number: '" + value + "'");
+        }
+    }
+
+    private Integer toInteger(List<String> fields, String column) {
+        String value = field(fields, column);
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(column + " is not a whole number: '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.product.service.productimport;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Body formats of the bulk import, by request Content-Type.
+ */
+public enum ImportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public static ImportFormat of(MediaType contentType) {
+        for (ImportFormat format : values()) {
+            if (format.mediaType.includes(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import Content-Type: " + contentType);
+    }
+}
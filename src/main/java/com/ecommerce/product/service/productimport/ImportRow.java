@@ -0,0 +1,18 @@
+package com.ecommerce.product.service.productimport;
+
+import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
+
+/**
+ * One parsed row of an import file: either a request or why it could not be
+ * read. row is the line number in the file, 1-based, header included.
+ */
+record ImportRow(long row, ProductCreateRequest request, String error) {
+
+    static ImportRow of(long row, ProductCreateRequest request) {
+        return new ImportRow(row, request, null);
+    }
+
+    static ImportRow failed(long row, String error) {
+        return new ImportRow(row, null, error);
+    }
+}
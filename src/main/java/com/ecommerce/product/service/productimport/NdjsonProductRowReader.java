@@ -0,0 +1,50 @@
+package com.ecommerce.product.service.productimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One ProductCreateRequest JSON object per line; blank lines are skipped. A
+ * line longer than maxRowChars characters fails its row unparsed.
+ */
+class NdjsonProductRowReader implements ProductRowReader {
+
+    private final BoundedLineReader lines;
+    private final ObjectMapper objectMapper;
+    private final int maxRowChars;
+    private long lineNumber;
+
+    NdjsonProductRowReader(BufferedReader reader, ObjectMapper objectMapper, int maxRowChars) {
+        this.lines = new BoundedLineReader(reader);
+        this.objectMapper = objectMapper;
+        this.maxRowChars = maxRowChars;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        while ((line = lines.readLine(maxRowChars)) != null) {
+            lineNumber++;
+            if (lines.truncated()) {
+                return ImportRow.failed(lineNumber, "Row is longer than " + maxRowChars + " characters.");
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                ProductCreateRequest request = objectMapper.readValue(line, ProductCreateRequest.class);
+                return request != null
+                        ? ImportRow.of(lineNumber, request)
+                        : ImportRow.failed(lineNumber, "Expected a JSON object.");
+            } catch (JsonProcessingException e) {
+                return ImportRow.failed(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.product.service.productimport;
+
+import java.io.InputStream;
+
+import com.ecommerce.product.controller.productmanage.dto.ProductImportResponse;
+
+public interface ProductImportService {
+
+    /**
+     * Creates the rows of {@code body} as products of the authenticated
+     * seller. Bad rows are reported and skipped; they do not fail the import.
+     */
+    ProductImportResponse importProducts(InputStream body, ImportFormat format);
+}
@@ -0,0 +1,210 @@
+package com.ecommerce.product.service.productimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
+import com.ecommerce.product.controller.productmanage.dto.ProductImportResponse;
+import com.ecommerce.product.controller.productmanage.dto.ProductImportResponse.RowError;
+import com.ecommerce.product.model.db.entity.Category;
+import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.category.CategoryRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the import body row by row. Rows are validated like
+ * POST /api/v1/products, against one category snapshot instead of a query per
+ * row, and inserted product.import.batch.size at a time: one JDBC batch and
+ * one transaction per batch, so a failed batch only loses its own rows and
+ * committed ones stay. Memory holds one batch plus at most
+ * product.import.max.errors row errors, whatever the file size; a row longer
+ * than product.import.max.row.chars characters fails unread.
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private final ProductRepository productRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int maxRowChars;
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+            CategoryRegistry categoryRegistry,
+            Validator validator,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${product.import.batch.size:500}") int batchSize,
+            @Value("${product.import.max.errors:1000}") int maxErrors,
+            @Value("${product.import.max.row.chars:65536}") int maxRowChars) {
+        this.productRepository = productRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.maxRowChars = maxRowChars;
+    }
+
+    /**
+     * Counters of one import, and its first maxErrors row errors.
+     */
+    private static final class Progress {
+        private final int maxErrors;
+        private final List<RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        private Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long row, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        private ProductImportResponse toResponse() {
+            return new ProductImportResponse(rows, imported, failed, errors, failed > errors.size());
+        }
+    }
+
+    @Override
+    public ProductImportResponse importProducts(InputStream body, ImportFormat format) {
+        Long sellerAdminId = getAuthenticatedSellerId();
+        log.info("Importing products from {} for sellerAdminId: {}", format, sellerAdminId);
+        long started = System.currentTimeMillis();
+
+        // once per import, so categories created just before it are accepted
+        categoryRegistry.refresh();
+        Map<Long, Category> categories = categoryRegistry.snapshot().byId();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        ProductRowReader rows = format == ImportFormat.NDJSON
+                ? new NdjsonProductRowReader(reader, objectMapper, maxRowChars)
+                : new CsvProductRowReader(reader, maxRowChars);
+
+        Progress progress = new Progress(maxErrors);
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Long> batchRows = new ArrayList<>(batchSize);
+
+        try {
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                progress.rows++;
+                String error = row.error() != null ? row.error() : validate(row.request(), categories);
+                if (error != null) {
+                    progress.fail(row.row(), error);
+                    continue;
+                }
+
+                batch.add(toProduct(row.request(), sellerAdminId));
+                batchRows.add(row.row());
+                if (batch.size() == batchSize) {
+                    insert(batch, batchRows, progress);
+                }
+            }
+            insert(batch, batchRows, progress);
+        } catch (IOException e) {
+            log.warn("Reading the import body failed after {} rows ({} imported) for sellerAdminId: {}",
+                    progress.rows, progress.imported, sellerAdminId);
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Imported {} of {} rows for sellerAdminId: {} in {} ms ({} failed).", progress.imported,
+                progress.rows, sellerAdminId, System.currentTimeMillis() - started, progress.failed);
+        return progress.toResponse();
+    }
+
+    // the messages of the failed constraints, or null if the row is valid
+    private String validate(ProductCreateRequest request, Map<Long, Category> categories) {
+        Set<ConstraintViolation<ProductCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (!categories.containsKey(request.categoryId())) {
+            return "Category not found with ID: " + request.categoryId();
+        }
+        return null;
+    }
+
+    private void insert(List<Product> batch, List<Long> batchRows, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.insertAll(batch);
+                eventPublisher.publishEvent(
+                        ProductsChangedEvent.catalogue(batch.stream().map(Product::getId).toList()));
+            });
+            progress.imported += batch.size();
+        } catch (DataAccessException e) {
+            // the batch rolled back as a whole; the cause stays in the log, it may name tables and constraints
+            log.error("Inserting an import batch of {} rows failed. Error: {}", batch.size(), e.getMessage(), e);
+            batchRows.forEach(row -> progress.fail(row, "Insert failed."));
+        }
+
+        batch.clear();
+        batchRows.clear();
+    }
+
+    private static Product toProduct(ProductCreateRequest request, Long sellerAdminId) {
+        Product product = new Product();
+        product.setSellerAdminId(sellerAdminId);
+        product.setCategoryId(request.categoryId());
+        product.setTitle(request.title());
+        product.setDescription(request.description());
+        product.setPrice(request.price());
+        product.setStockAvailable(request.stockAvailable());
+        product.setStockReserved(0);
+        return product;
+    }
+
+    private Long getAuthenticatedSellerId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Jwt jwt = (Jwt) authentication.getPrincipal();
+        return Long.parseLong(jwt.getSubject());
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.product.service.productimport;
+
+import java.io.IOException;
+
+/**
+ * Reads an import body one row at a time, so only the current row is held in
+ * memory.
+ */
+interface ProductRowReader {
+
+    /**
+     * @return the next row, or null at the end of the body.
+     */
+    ImportRow next() throws IOException;
+}
@@ -3,6 +3,7 @@ package com.ecommerce.product.service.productmanage;
 import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
 import com.ecommerce.product.controller.productmanage.dto.ProductSellerResponse;
 import com.ecommerce.product.controller.productmanage.dto.ProductUpdateRequest;
+import com.ecommerce.product.controller.productmanage.dto.StockStripingRequest;
 
 public interface ProductManageService {
 
@@ -11,4 +12,8 @@ public interface ProductManageService {
     ProductSellerResponse updateProduct(Long productId, ProductUpdateRequest request);
 
     void deleteProduct(Long productId);
+
+    ProductSellerResponse updateStockStriping(Long productId, StockStripingRequest request);
+
+    ProductSellerResponse rebalanceStock(Long productId);
 }
@@ -1,21 +1,31 @@
 package com.ecommerce.product.service.productmanage;
 
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
 import com.ecommerce.product.controller.productmanage.dto.ProductSellerResponse;
 import com.ecommerce.product.controller.productmanage.dto.ProductUpdateRequest;
+import com.ecommerce.product.controller.productmanage.dto.StockStripingRequest;
 import com.ecommerce.product.exception.CategoryNotFoundException;
 import com.ecommerce.product.exception.ProductAccessDeniedException;
 import com.ecommerce.product.exception.ProductNotFoundException;
-import com.ecommerce.product.model.db.entity.Category;
+import com.ecommerce.product.exception.StockStripingConflictException;
 import com.ecommerce.product.model.db.entity.Product;
-import com.ecommerce.product.repository.db.CategoryRepository;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
 import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.category.CategoryRegistry;
+import com.ecommerce.product.service.stock.StockReservationEngine;
+import com.ecommerce.product.service.stock.StockStripingService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,14 +37,19 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductManageServiceImpl implements ProductManageService {
 
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final StockStripingService stockStripingService;
+    private final ObjectProvider<StockReservationEngine> stockReservationEngine;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_STOCK_BUCKETS = 8;
 
     @Override
     public ProductSellerResponse createProduct(ProductCreateRequest request) {
         Long sellerAdminId = getAuthenticatedSellerId();
         log.info("Creating product '{}' for sellerAdminId: {}", request.title(), sellerAdminId);
 
-        if (!categoryRepository.existsById(request.categoryId())) {
+        if (!categoryRegistry.exists(request.categoryId())) {
             log.warn("CategoryNotFoundException for categoryId: {}", request.categoryId());
             throw new CategoryNotFoundException(request.categoryId());
         }
@@ -49,8 +64,8 @@ public class ProductManageServiceImpl implements ProductManageService {
         product.setStockReserved(0);
 
         Product savedProduct = productRepository.save(product);
-        Category category = categoryRepository.getReferenceById(savedProduct.getCategoryId());
-        savedProduct.setCategory(category);
+        categoryRegistry.attach(List.of(savedProduct));
+        eventPublisher.publishEvent(ProductsChangedEvent.catalogue(List.of(savedProduct.getId())));
 
         log.info("Product created successfully with ID: {}", savedProduct.getId());
         return new ProductSellerResponse(savedProduct);
@@ -61,7 +76,7 @@ public class ProductManageServiceImpl implements ProductManageService {
         Long sellerAdminId = getAuthenticatedSellerId();
         log.info("Updating product ID: {} by sellerAdminId: {}", productId, sellerAdminId);
 
-        if (!categoryRepository.existsById(request.categoryId())) {
+        if (!categoryRegistry.exists(request.categoryId())) {
             log.warn("CategoryNotFoundException for categoryId: {}", request.categoryId());
             throw new CategoryNotFoundException(request.categoryId());
         }
@@ -71,11 +86,17 @@ public class ProductManageServiceImpl implements ProductManageService {
         product.setTitle(request.title());
         product.setDescription(request.description());
         product.setPrice(request.price());
-        product.setStockAvailable(request.stockAvailable());
+        if (Boolean.TRUE.equals(product.getStockStriped())) {
+            stockStripingService.setAvailable(product, request.stockAvailable());
+        } else {
+            product.setStockAvailable(request.stockAvailable());
+            syncStockEngineAfterCommit(productId, request.stockAvailable());
+        }
 
         Product updatedProduct = productRepository.save(product);
-        Category category = categoryRepository.getReferenceById(updatedProduct.getCategoryId());
-        updatedProduct.setCategory(category);
+        categoryRegistry.attach(List.of(updatedProduct));
+        stockStripingService.loadBucketTotals(List.of(updatedProduct));
+        eventPublisher.publishEvent(ProductsChangedEvent.catalogue(List.of(productId)));
 
         log.info("Product ID: {} updated successfully by sellerAdminId: {}", productId, sellerAdminId);
         return new ProductSellerResponse(updatedProduct);
@@ -88,11 +109,73 @@ public class ProductManageServiceImpl implements ProductManageService {
 
         Product product = getProductAndVerifyOwnership(productId, sellerAdminId);
 
+        if (Boolean.TRUE.equals(product.getStockStriped())) {
+            stockStripingService.disable(product);
+        }
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductsChangedEvent.catalogue(List.of(productId)));
 
         log.info("Product ID: {} deleted successfully by sellerAdminId: {}", productId, sellerAdminId);
     }
 
+    @Override
+    public ProductSellerResponse updateStockStriping(Long productId, StockStripingRequest request) {
+        Long sellerAdminId = getAuthenticatedSellerId();
+        log.info("Setting stock striping of product ID: {} to {} (buckets: {}) by sellerAdminId: {}",
+                productId, request.enabled(), request.buckets(), sellerAdminId);
+
+        if (stockReservationEngine.getIfAvailable() != null) {
+            // the engine owns the stock columns of non-striped products and would overwrite the move
+            throw new StockStripingConflictException("Stock striping cannot be changed while the stock engine is enabled.");
+        }
+
+        Product product = getProductAndVerifyOwnership(productId, sellerAdminId);
+
+        if (request.enabled()) {
+            int buckets = request.buckets() != null ? request.buckets() : DEFAULT_STOCK_BUCKETS;
+            stockStripingService.enable(product, buckets);
+        } else if (Boolean.TRUE.equals(product.getStockStriped())) {
+            stockStripingService.disable(product);
+        }
+
+        return toSellerResponse(product);
+    }
+
+    @Override
+    public ProductSellerResponse rebalanceStock(Long productId) {
+        Long sellerAdminId = getAuthenticatedSellerId();
+        log.info("Rebalancing stock buckets of product ID: {} by sellerAdminId: {}", productId, sellerAdminId);
+
+        Product product = getProductAndVerifyOwnership(productId, sellerAdminId);
+        stockStripingService.rebalance(product);
+
+        return toSellerResponse(product);
+    }
+
+    /**
+     * The stock engine holds the authoritative counters, so it has to learn
+     * about a seller's stock edit; only once the edit has committed.
+     */
+    private void syncStockEngineAfterCommit(Long productId, int stockAvailable) {
+        StockReservationEngine engine = stockReservationEngine.getIfAvailable();
+        if (engine == null) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                engine.setAvailable(productId, stockAvailable);
+            }
+        });
+    }
+
+    private ProductSellerResponse toSellerResponse(Product product) {
+        categoryRegistry.attach(List.of(product));
+        stockStripingService.loadBucketTotals(List.of(product));
+        return new ProductSellerResponse(product);
+    }
+
     private Long getAuthenticatedSellerId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         Jwt jwt = (Jwt) authentication.getPrincipal();
@@ -100,7 +183,8 @@ public class ProductManageServiceImpl implements ProductManageService {
     }
 
     private Product getProductAndVerifyOwnership(Long productId, Long sellerAdminId) {
-        Product product = productRepository.findById(productId)
+        // locked, so stock changes here serialize with the saga's reservations
+        Product product = productRepository.findByIdForUpdate(productId)
                 .orElseThrow(() -> {
                     log.warn("ProductNotFoundException for productId: {}", productId);
                     return new ProductNotFoundException(productId);
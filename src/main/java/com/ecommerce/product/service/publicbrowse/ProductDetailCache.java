@@ -0,0 +1,108 @@
+package com.ecommerce.product.service.publicbrowse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecommerce.product.controller.publicbrowse.dto.ProductPublicResponse;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+import com.ecommerce.product.util.SingleFlight;
+import com.ecommerce.product.util.SingleFlight.Result;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-process cache of public product details.
+ *
+ * Entries are dropped after the transaction that changed the product commits
+ * (see ProductsChangedEvent) and in any case after product.cache.ttl.ms, which
+ * bounds how stale the shown stock can get: with the stock engine enabled the
+ * products row itself lags by up to stock.engine.flush.ms.
+ *
+ * A load that read the row before a change committed must not be cached after
+ * that change's invalidation. Every invalidation bumps an epoch slot of the
+ * product; a load whose slot moved while it ran evicts its own result.
+ *
+ * Misses of the same product are coalesced: while one request loads it, the
+ * others wait for that load instead of all querying MySQL (the thundering herd
+ * right after a hot product was invalidated).
+ */
+@Component
+public class ProductDetailCache {
+
+    private static final String CACHE_NAME = "productDetail";
+    private static final int EPOCH_SLOTS = 1024;
+    private static final String METRIC_COALESCED = "product.detail.loads.coalesced";
+
+    private final Cache<Long, ProductPublicResponse> cache;
+    private final AtomicLongArray epochs = new AtomicLongArray(EPOCH_SLOTS);
+    private final SingleFlight<Long, ProductPublicResponse> loads = new SingleFlight<>();
+    private final Counter coalescedCounter;
+
+    public ProductDetailCache(MeterRegistry meterRegistry,
+            @Value("${product.cache.max.size:10000}") long maxSize,
+            @Value("${product.cache.ttl.ms:5000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.coalescedCounter = Counter.builder(METRIC_COALESCED)
+                .description("Product detail misses served by another request's in-flight load")
+                .register(meterRegistry);
+    }
+
+    public ProductPublicResponse get(Long productId, Function<Long, ProductPublicResponse> loader) {
+        ProductPublicResponse cached = cache.getIfPresent(productId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Result<ProductPublicResponse> result = loads.load(productId, id -> loadAndCache(id, loader));
+        if (result.shared()) {
+            coalescedCounter.increment();
+        }
+        return result.value();
+    }
+
+    /**
+     * @return the cached details, or null without loading them.
+     */
+    public ProductPublicResponse getIfPresent(Long productId) {
+        return cache.getIfPresent(productId);
+    }
+
+    private ProductPublicResponse loadAndCache(Long productId, Function<Long, ProductPublicResponse> loader) {
+        int slot = slot(productId);
+        long epoch = epochs.get(slot);
+        ProductPublicResponse loaded = loader.apply(productId);
+
+        cache.put(productId, loaded);
+        if (epochs.get(slot) != epoch) {
+            cache.invalidate(productId);
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        for (Long productId : event.productIds()) {
+            epochs.incrementAndGet(slot(productId));
+            cache.invalidate(productId);
+        }
+    }
+
+    private static int slot(Long productId) {
+        return (int) Math.floorMod(productId, (long) EPOCH_SLOTS);
+    }
+}
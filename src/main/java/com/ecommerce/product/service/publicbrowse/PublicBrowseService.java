@@ -1,15 +1,53 @@
 package com.ecommerce.product.service.publicbrowse;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.ecommerce.product.controller.publicbrowse.dto.ProductPublicResponse;
+import com.ecommerce.product.service.pagination.CursorPage;
+import com.ecommerce.product.service.pagination.PageTotal;
+import com.ecommerce.product.service.search.SearchFilter;
+import com.ecommerce.product.service.search.SearchPage;
 
 public interface PublicBrowseService {
 
     Page<ProductPublicResponse> getAllProducts(Long categoryId, Pageable pageable);
 
+    /**
+     * A Page for EXACT, and for APPROXIMATE once an estimate exists; a plain
+     * Slice otherwise.
+     */
+    Slice<ProductPublicResponse> getAllProducts(Long categoryId, Pageable pageable, PageTotal total);
+
+    /**
+     * Keyset-paginated variant; {@code cursor} is null or blank for the first
+     * page, whose order then comes from {@code pageable}'s sort.
+     */
+    CursorPage<ProductPublicResponse> getAllProducts(Long categoryId, String cursor, Pageable pageable);
+
     Page<ProductPublicResponse> searchProducts(String query, Pageable pageable);
 
+    /**
+     * Same contract as {@link #getAllProducts(Long, Pageable, PageTotal)}.
+     */
+    Slice<ProductPublicResponse> searchProducts(String query, Pageable pageable, PageTotal total);
+
+    /**
+     * Filtered search; with {@code facets}, also the product counts of the
+     * whole search per category and price range. Facets give the exact total
+     * in the same pass, so EXACT and APPROXIMATE both get it then.
+     */
+    SearchPage<ProductPublicResponse> searchProducts(String query, SearchFilter filter, boolean facets,
+            Pageable pageable, PageTotal total);
+
+    /**
+     * Completions of the last word of {@code prefix} from product title words,
+     * most frequent first, each preceded by the words typed before it.
+     */
+    List<String> suggest(String prefix, int limit);
+
     ProductPublicResponse getProductById(Long productId);
 }
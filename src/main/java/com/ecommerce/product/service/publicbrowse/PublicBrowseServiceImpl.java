@@ -1,17 +1,50 @@
 package com.ecommerce.product.service.publicbrowse;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ecommerce.product.controller.publicbrowse.dto.ProductPublicResponse;
+import com.ecommerce.product.controller.publicbrowse.dto.SearchFacets;
+import com.ecommerce.product.controller.publicbrowse.dto.SearchFacets.CategoryFacet;
+import com.ecommerce.product.controller.publicbrowse.dto.SearchFacets.PriceRangeFacet;
 import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.model.db.entity.Category;
 import com.ecommerce.product.model.db.entity.Product;
 import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.category.CategoryRegistry;
+import com.ecommerce.product.service.pagination.CursorPage;
+import com.ecommerce.product.service.pagination.PageTotal;
+import com.ecommerce.product.service.pagination.ProductCountEstimator;
+import com.ecommerce.product.service.pagination.ProductCountEstimator.Listing;
+import com.ecommerce.product.service.pagination.ProductCursor;
+import com.ecommerce.product.service.search.FacetCounts;
+import com.ecommerce.product.service.search.PriceRange;
+import com.ecommerce.product.service.search.ProductSearchIndex;
+import com.ecommerce.product.service.search.ProductSuggestIndex;
+import com.ecommerce.product.service.search.SearchFilter;
+import com.ecommerce.product.service.search.SearchPage;
+import com.ecommerce.product.service.search.SearchTokenizer;
+import com.ecommerce.product.service.stock.StockStripingService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +55,18 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional(readOnly = true)
 public class PublicBrowseServiceImpl implements PublicBrowseService {
 
+    // one search's products, with its facets when they were asked for
+    private record Searched(Slice<Product> products, FacetCounts facets) {
+    }
+
     private final ProductRepository productRepository;
+    private final StockStripingService stockStripingService;
+    private final CategoryRegistry categoryRegistry;
+    private final ProductDetailCache productDetailCache;
+    private final ProductCountEstimator productCountEstimator;
+    private final SearchResultCache searchResultCache;
+    private final ObjectProvider<ProductSearchIndex> productSearchIndex;
+    private final ObjectProvider<ProductSuggestIndex> productSuggestIndex;
 
     @Override
     public Page<ProductPublicResponse> getAllProducts(Long categoryId, Pageable pageable) {
@@ -37,19 +81,221 @@ public class PublicBrowseServiceImpl implements PublicBrowseService {
             productPage = productRepository.findAll(pageable);
         }
 
+        stockStripingService.loadBucketTotals(productPage.getContent());
+        categoryRegistry.attach(productPage.getContent());
         return productPage.map(ProductPublicResponse::new);
     }
 
+    @Override
+    public Slice<ProductPublicResponse> getAllProducts(Long categoryId, Pageable pageable, PageTotal total) {
+        if (total == PageTotal.EXACT) {
+            return getAllProducts(categoryId, pageable);
+        }
+
+        log.info("Fetching public product slice for categoryId: {} (Page: {}, Size: {}, Total: {})",
+                categoryId, pageable.getPageNumber(), pageable.getPageSize(), total);
+
+        Slice<Product> productSlice;
+
+        if (categoryId != null) {
+            productSlice = productRepository.findSliceByCategoryId(categoryId, pageable);
+        } else {
+            productSlice = productRepository.findSliceBy(pageable);
+        }
+
+        return toResponses(productSlice, total, Listing.of(categoryId));
+    }
+
+    @Override
+    public CursorPage<ProductPublicResponse> getAllProducts(Long categoryId, String cursor, Pageable pageable) {
+        log.info("Fetching public product list for categoryId: {} (Cursor: {}, Size: {})",
+                categoryId, cursor, pageable.getPageSize());
+
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        Sort sort = after != null ? after.sort() : ProductCursor.firstPageSort(pageable);
+        ScrollPosition position = after != null ? after.toScrollPosition() : ScrollPosition.keyset();
+        Limit limit = Limit.of(pageable.getPageSize());
+
+        Window<Product> window;
+
+        if (categoryId != null) {
+            window = productRepository.findByCategoryId(categoryId, position, sort, limit);
+        } else {
+            window = productRepository.findBy(position, sort, limit);
+        }
+
+        stockStripingService.loadBucketTotals(window.getContent());
+        categoryRegistry.attach(window.getContent());
+        return ProductCursor.page(window, sort).map(ProductPublicResponse::new);
+    }
+
     @Override
     public Page<ProductPublicResponse> searchProducts(String query, Pageable pageable) {
+        // an unfaceted EXACT search always comes back as a Page
+        return (Page<ProductPublicResponse>) searchProducts(query, SearchFilter.NONE, false, pageable,
+                PageTotal.EXACT).page();
+    }
+
+    @Override
+    public Slice<ProductPublicResponse> searchProducts(String query, Pageable pageable, PageTotal total) {
+        return searchProducts(query, SearchFilter.NONE, false, pageable, total).page();
+    }
+
+    @Override
+    public SearchPage<ProductPublicResponse> searchProducts(String query, SearchFilter filter, boolean facets,
+            Pageable pageable, PageTotal total) {
 
         String formattedQuery = formatFullTextQuery(query);
 
-        log.info("Executing full-text search for query: '{}' (Formatted: '{}')", query, formattedQuery);
+        log.info("Executing full-text search for query: '{}' (Formatted: '{}', Filter: {}, Facets: {}, Total: {})",
+                query, formattedQuery, filter, facets, total);
+
+        Listing listing = Listing.ofSearch(formattedQuery, filter);
+        boolean counted = total == PageTotal.EXACT;
+        SearchResultCache.Key key = searchResultCache.key(formattedQuery, filter, facets, pageable, counted);
+        SearchResultCache.Ids cached = searchResultCache.get(key);
+        if (cached != null) {
+            List<ProductPublicResponse> content = hydrate(cached.productIds());
+            Slice<ProductPublicResponse> slice = cached.total() != null
+                    ? new PageImpl<>(content, pageable, cached.total())
+                    : new SliceImpl<>(content, pageable, cached.hasNext());
+            return new SearchPage<>(withTotal(slice, total, listing), toFacets(cached.facets()));
+        }
 
-        Page<Product> productPage = productRepository.searchByTitleAndDescription(formattedQuery, pageable);
+        Searched searched = searchIndex(query, filter, facets, pageable);
+        if (searched == null) {
+            searched = searchDatabase(formattedQuery, filter, facets, pageable, counted);
+        }
+        searchResultCache.put(key, searched.products(), searched.facets());
 
-        return productPage.map(ProductPublicResponse::new);
+        return new SearchPage<>(toResponses(searched.products(), total, listing), toFacets(searched.facets()));
+    }
+
+    /**
+     * Responses for cached search hits, in their ranked order. Products still in
+     * the detail cache are reused; the rest are read with one findAllById. A hit
+     * deleted since it was cached is dropped.
+     */
+    private List<ProductPublicResponse> hydrate(List<Long> productIds) {
+        Map<Long, ProductPublicResponse> responses = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long productId : productIds) {
+            ProductPublicResponse cached = productDetailCache.getIfPresent(productId);
+            if (cached != null) {
+                responses.put(productId, cached);
+            } else {
+                missing.add(productId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Product> products = productRepository.findAllById(missing);
+            stockStripingService.loadBucketTotals(products);
+            categoryRegistry.attach(products);
+            products.forEach(product -> responses.put(product.getId(), new ProductPublicResponse(product)));
+        }
+
+        return productIds.stream().map(responses::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Serves a relevance-ranked search from the in-memory index, hydrating the
+     * page of hits by primary key. Returns null when the index is disabled,
+     * still building, or the request asks for a sort order it cannot give;
+     * the caller then falls back to MySQL.
+     */
+    private Searched searchIndex(String query, SearchFilter filter, boolean facets, Pageable pageable) {
+        ProductSearchIndex index = productSearchIndex.getIfAvailable();
+        if (index == null || !index.isReady() || pageable.getSort().isSorted()) {
+            return null;
+        }
+
+        log.info("Executing in-memory search for query: '{}' (Page: {}, Size: {})",
+                query, pageable.getPageNumber(), pageable.getPageSize());
+
+        ProductSearchIndex.Hits hits = index.search(query, filter, facets, pageable.getOffset(),
+                pageable.getPageSize());
+        Map<Long, Product> byId = hits.productIds().isEmpty()
+                ? Map.of()
+                : productRepository.findAllById(hits.productIds()).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+        // keep the ranking; a hit deleted since it was indexed is dropped
+        List<Product> content = hits.productIds().stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new Searched(new PageImpl<>(content, pageable, hits.total()), hits.facets());
+    }
+
+    /**
+     * MATCH ... AGAINST search. Facets take one aggregation over the matches,
+     * which also yields the exact total, so the page is then read as a slice
+     * without COUNT(*).
+     */
+    private Searched searchDatabase(String formattedQuery, SearchFilter filter, boolean facets, Pageable pageable,
+            boolean counted) {
+        if (facets) {
+            FacetCounts.Tally tally = new FacetCounts.Tally(filter);
+            productRepository.countFacetsByFullText(formattedQuery, PriceRange.BOUNDS)
+                    .forEach(row -> tally.add(row.getCategoryId(), PriceRange.values()[row.getPriceRange()],
+                            row.getProducts()));
+            FacetCounts counts = tally.counts();
+
+            Slice<Product> productSlice = productRepository.searchSliceByTitleAndDescription(formattedQuery,
+                    filter.categoryId(), filter.minPrice(), filter.maxPrice(), pageable);
+            return new Searched(new PageImpl<>(productSlice.getContent(), pageable, counts.total()), counts);
+        }
+
+        Slice<Product> products = counted
+                ? productRepository.searchByTitleAndDescription(formattedQuery, filter.categoryId(),
+                        filter.minPrice(), filter.maxPrice(), pageable)
+                : productRepository.searchSliceByTitleAndDescription(formattedQuery, filter.categoryId(),
+                        filter.minPrice(), filter.maxPrice(), pageable);
+        return new Searched(products, null);
+    }
+
+    /**
+     * Categories by product count, named from the registry; price ranges all
+     * listed, cheapest first, empty ones included.
+     */
+    private SearchFacets toFacets(FacetCounts counts) {
+        if (counts == null) {
+            return null;
+        }
+
+        List<CategoryFacet> categories = counts.categories().entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(entry -> {
+                    Category category = categoryRegistry.get(entry.getKey());
+                    return new CategoryFacet(entry.getKey(), category != null ? category.getName() : null,
+                            entry.getValue());
+                })
+                .toList();
+        List<PriceRangeFacet> priceRanges = Arrays.stream(PriceRange.values())
+                .map(range -> new PriceRangeFacet(range, range.getMinPrice(), range.getMaxPrice(),
+                        counts.priceRanges().getOrDefault(range, 0L)))
+                .toList();
+        return new SearchFacets(categories, priceRanges);
+    }
+
+    private Slice<ProductPublicResponse> toResponses(Slice<Product> productSlice, PageTotal total, Listing listing) {
+        stockStripingService.loadBucketTotals(productSlice.getContent());
+        categoryRegistry.attach(productSlice.getContent());
+
+        return withTotal(productSlice.map(ProductPublicResponse::new), total, listing);
+    }
+
+    /**
+     * A slice that already knows its exact total (the in-memory index counts
+     * for free) keeps it unless NONE was asked for; others get an estimate for
+     * APPROXIMATE.
+     */
+    private Slice<ProductPublicResponse> withTotal(Slice<ProductPublicResponse> slice, PageTotal total,
+            Listing listing) {
+        if (slice instanceof Page) {
+            return total == PageTotal.NONE ? new SliceImpl<>(slice.getContent(), slice.getPageable(), slice.hasNext())
+                    : slice;
+        }
+        return total == PageTotal.APPROXIMATE ? productCountEstimator.withEstimate(slice, listing) : slice;
     }
 
     private String formatFullTextQuery(String query) {
@@ -63,16 +309,48 @@ public class PublicBrowseServiceImpl implements PublicBrowseService {
                 .collect(Collectors.joining(" "));
     }
 
+    /**
+     * Called on every keystroke, so it is logged at debug only and, being
+     * served from memory, never checks out a connection.
+     */
     @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<String> suggest(String prefix, int limit) {
+        log.debug("Suggesting completions for prefix: '{}' (Limit: {})", prefix, limit);
+
+        ProductSuggestIndex index = productSuggestIndex.getIfAvailable();
+        List<String> words = SearchTokenizer.tokenize(prefix);
+        if (index == null || words.isEmpty()) {
+            return List.of();
+        }
+
+        String typed = String.join(" ", words.subList(0, words.size() - 1));
+        return index.suggest(words.get(words.size() - 1), limit).stream()
+                .map(completion -> typed.isEmpty() ? completion : typed + " " + completion)
+                .toList();
+    }
+
+    /**
+     * SUPPORTS: a cache hit must not check out a connection. A miss still runs
+     * in one persistence context, so the lazy category loads.
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public ProductPublicResponse getProductById(Long productId) {
         log.info("Fetching public details for productId: {}", productId);
 
+        return productDetailCache.get(productId, this::loadProduct);
+    }
+
+    private ProductPublicResponse loadProduct(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> {
                     log.warn("ProductNotFoundException for productId: {}", productId);
                     return new ProductNotFoundException(productId);
                 });
 
+        stockStripingService.loadBucketTotals(List.of(product));
+        categoryRegistry.attach(List.of(product));
         return new ProductPublicResponse(product);
     }
 }
@@ -0,0 +1,103 @@
+package com.ecommerce.product.service.publicbrowse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+import com.ecommerce.product.service.search.FacetCounts;
+import com.ecommerce.product.service.search.SearchFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short-lived cache of search result pages. Only the ranked product ids are
+ * kept; the page content is hydrated on every request, so stock and price are
+ * as fresh as on the product detail endpoint.
+ *
+ * Keys carry the catalogue generation they were read at. A catalogue
+ * ProductsChangedEvent (a product created, edited or deleted, so its title or
+ * description may have changed, here or on another instance through
+ * ProductChangeFeed) bumps the generation: pages cached before it
+ * are no longer found and age out. Stock-only changes cannot change what
+ * matches and keep the generation. search.cache.ttl.ms bounds the rest, e.g.
+ * the moment the in-memory index takes to apply a change after the bump.
+ */
+@Component
+public class SearchResultCache {
+
+    /**
+     * One page of one filtered query; counted pages carry a total, the others
+     * only hasNext.
+     */
+    public record Key(String query, SearchFilter filter, boolean faceted, long offset, int pageSize, Sort sort,
+            boolean counted, long generation) {
+    }
+
+    /**
+     * @param total  null unless the page was counted (or came with a total).
+     * @param facets null unless the search was faceted.
+     */
+    public record Ids(List<Long> productIds, Long total, boolean hasNext, FacetCounts facets) {
+    }
+
+    private static final String CACHE_NAME = "searchResult";
+
+    private final Cache<Key, Ids> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+            @Value("${search.cache.max.size:1000}") long maxSize,
+            @Value("${search.cache.ttl.ms:10000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Taken before the search runs, so a result read before a change commits
+     * is cached under the old generation.
+     *
+     * @param formattedQuery the query after formatFullTextQuery; MySQL full-text
+     *                       matching is case-insensitive, so case is dropped.
+     */
+    public Key key(String formattedQuery, SearchFilter filter, boolean faceted, Pageable pageable,
+            boolean counted) {
+        return new Key(formattedQuery.toLowerCase(Locale.ROOT), filter, faceted, pageable.getOffset(),
+                pageable.getPageSize(), pageable.getSort(), counted, generation.get());
+    }
+
+    public Ids get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, Slice<Product> result, FacetCounts facets) {
+        List<Long> productIds = result.getContent().stream().map(Product::getId).toList();
+        Long total = result instanceof Page<Product> page ? page.getTotalElements() : null;
+        cache.put(key, new Ids(productIds, total, result.hasNext(), facets));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!event.stockOnly()) {
+            generation.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.product.service.search;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Product counts of a search per category and per price range, counted the
+ * way filter UIs expect: each facet is narrowed by the other facet's filter
+ * only, so picking a category still shows what the other categories hold.
+ *
+ * @param total the products matching both filters, i.e. the search's total.
+ */
+public record FacetCounts(Map<Long, Long> categories, Map<PriceRange, Long> priceRanges, long total) {
+
+    /**
+     * Accumulates matches, one product or one (category, price range) group
+     * at a time.
+     */
+    public static final class Tally {
+
+        private final SearchFilter filter;
+        private final Map<Long, Long> categories = new HashMap<>();
+        private final Map<PriceRange, Long> priceRanges = new EnumMap<>(PriceRange.class);
+        private long total;
+
+        public Tally(SearchFilter filter) {
+            this.filter = filter;
+        }
+
+        public void add(Long categoryId, PriceRange priceRange, long products) {
+            boolean inCategory = filter.matchesCategory(categoryId);
+            boolean inPriceRange = filter.matchesPriceRange(priceRange);
+
+            if (inPriceRange) {
+                categories.merge(categoryId, products, Long::sum);
+            }
+            if (inCategory) {
+                priceRanges.merge(priceRange, products, Long::sum);
+            }
+            if (inCategory && inPriceRange) {
+                total += products;
+            }
+        }
+
+        public FacetCounts counts() {
+            return new FacetCounts(Map.copyOf(categories), Map.copyOf(priceRanges), total);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.product.service.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Price ranges of the search facets and filter, in cents; min inclusive, max
+ * exclusive. Declared in ascending order: a price's range is the number of
+ * bounds at or below it, which is what MySQL's INTERVAL() returns.
+ */
+public enum PriceRange {
+    UNDER_10(null, 1000L),
+    FROM_10_TO_50(1000L, 5000L),
+    FROM_50_TO_100(5000L, 10000L),
+    FROM_100_TO_500(10000L, 50000L),
+    FROM_500(50000L, null);
+
+    /**
+     * The lower bounds of all ranges but the first, for INTERVAL(price, ...).
+     */
+    public static final List<Long> BOUNDS = Arrays.stream(values()).skip(1).map(PriceRange::getMinPrice).toList();
+
+    private final Long minPrice;
+    private final Long maxPrice;
+
+    PriceRange(Long minPrice, Long maxPrice) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public Long getMinPrice() {
+        return minPrice;
+    }
+
+    public Long getMaxPrice() {
+        return maxPrice;
+    }
+
+    public static PriceRange of(long price) {
+        PriceRange[] ranges = values();
+        int index = 0;
+        while (index < BOUNDS.size() && price >= BOUNDS.get(index)) {
+            index++;
+        }
+        return ranges[index];
+    }
+}
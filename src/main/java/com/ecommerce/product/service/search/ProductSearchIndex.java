@@ -0,0 +1,348 @@
+package com.ecommerce.product.service.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+import com.ecommerce.product.repository.db.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory inverted index over product titles and descriptions, replacing
+ * MATCH ... AGAINST for public search when search.in-memory.enabled=true.
+ *
+ * Query semantics follow PublicBrowseServiceImpl#formatFullTextQuery: every
+ * query term is required and matches as a prefix ({@code +term*}). Results
+ * are ranked by BM25, title terms counting TITLE_WEIGHT times. Each document
+ * also keeps its category and price range, so filters and facet counts are
+ * applied while walking the matches.
+ *
+ * The index is built from the products table after startup and then kept up
+ * to date from catalogue ProductsChangedEvents, those of other instances
+ * arriving through ProductChangeFeed. Both run on the single thread of
+ * searchIndexExecutor, so a change that commits during the build is applied
+ * after it. A change that cannot be applied (writer queue full, or a failed
+ * read) marks the index dirty, and the next reconcile reindexes the whole
+ * catalogue on that thread. Searches run concurrently under the read lock;
+ * until the build is done isReady() is false and callers keep using MySQL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.in-memory.enabled", havingValue = "true")
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+
+    /**
+     * Ranked ids of one page of hits, the number of all hits, and the facets
+     * of the search when asked for (null otherwise).
+     */
+    public record Hits(List<Long> productIds, long total, FacetCounts facets) {
+    }
+
+    private record Document(Map<String, Integer> termFrequencies, int length, Long categoryId, PriceRange priceRange) {
+    }
+
+    private final ProductRepository productRepository;
+    private final TaskExecutor writer;
+    private final int buildBatchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> productId -> weighted term frequency; sorted, so a prefix is a range
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    private volatile boolean ready;
+    // set when a change could not be applied; reconcile() then reindexes everything
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+            @Qualifier("searchIndexExecutor") TaskExecutor writer,
+            @Value("${search.in-memory.build.batch.size:1000}") int buildBatchSize) {
+        this.productRepository = productRepository;
+        this.writer = writer;
+        this.buildBatchSize = buildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            writer.execute(this::reindexAll);
+        } catch (TaskRejectedException e) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Reindexes the whole catalogue once a change was dropped (writer queue
+     * full) or failed, or the build failed. Searches keep being served from
+     * the index meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${search.in-memory.reconcile.ms:60000}", initialDelayString = "${search.in-memory.reconcile.ms:60000}")
+    public void reconcile() {
+        if (!dirty.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            writer.execute(this::reindexAll);
+        } catch (TaskRejectedException e) {
+            dirty.set(true);
+            log.warn("[Search] Writer queue is full, reconciling the index later.");
+        }
+    }
+
+    // on the writer thread, so no change is applied meanwhile
+    private void reindexAll() {
+        long started = System.currentTimeMillis();
+        Sort byId = Sort.by(Sort.Direction.ASC, "id");
+        ScrollPosition position = ScrollPosition.keyset();
+        int indexed = 0;
+
+        Set<Long> stale;
+        lock.readLock().lock();
+        try {
+            stale = new HashSet<>(documents.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            Window<Product> window;
+            do {
+                window = productRepository.findBy(position, byId, Limit.of(buildBatchSize));
+                put(window.getContent());
+                window.forEach(product -> stale.remove(product.getId()));
+                indexed += window.size();
+                if (!window.isEmpty()) {
+                    position = window.positionAt(window.size() - 1);
+                }
+            } while (window.hasNext());
+            // deleted while their change was lost
+            remove(stale);
+
+            ready = true;
+            log.info("[Search] Indexed {} products ({} terms, {} removed) in {} ms.", indexed, postings.size(),
+                    stale.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            dirty.set(true);
+            log.error("[Search] Indexing the catalogue failed, retrying on the next reconcile. Error: {}",
+                    e.getMessage(), e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (event.stockOnly()) {
+            return;
+        }
+
+        List<Long> productIds = List.copyOf(event.productIds());
+        try {
+            writer.execute(() -> {
+                try {
+                    List<Product> products = productRepository.findAllById(productIds);
+                    Set<Long> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+
+                    put(products);
+                    remove(productIds.stream().filter(id -> !found.contains(id)).toList());
+                } catch (Exception e) {
+                    dirty.set(true);
+                    log.error("[Search] Could not reindex productIds: {}, reconciling the index. Error: {}",
+                            productIds, e.getMessage(), e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            dirty.set(true);
+            log.warn("[Search] Writer queue is full, productIds: {} are left to the next reconcile.", productIds);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return ids of the hits passing the filter ranked offset..offset+limit-1,
+     *         best first; with facets, counted over all hits of the query.
+     */
+    public Hits search(String query, SearchFilter filter, boolean facets, long offset, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return noHits(filter, facets);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = scorePrefix(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // every term is required
+                    Map<Long, Double> current = scores;
+                    scores = termScores.entrySet().stream()
+                            .filter(entry -> current.containsKey(entry.getKey()))
+                            .collect(Collectors.toMap(Map.Entry::getKey,
+                                    entry -> entry.getValue() + current.get(entry.getKey())));
+                }
+                if (scores.isEmpty()) {
+                    return noHits(filter, facets);
+                }
+            }
+
+            FacetCounts.Tally tally = facets ? new FacetCounts.Tally(filter) : null;
+            Map<Long, Double> filtered = new HashMap<>();
+            scores.forEach((productId, score) -> {
+                Document document = documents.get(productId);
+                if (tally != null) {
+                    tally.add(document.categoryId(), document.priceRange(), 1);
+                }
+                if (filter.matchesCategory(document.categoryId()) && filter.matchesPriceRange(document.priceRange())) {
+                    filtered.put(productId, score);
+                }
+            });
+
+            return new Hits(topK(filtered, offset, limit), filtered.size(), tally != null ? tally.counts() : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Hits noHits(SearchFilter filter, boolean facets) {
+        return new Hits(List.of(), 0, facets ? new FacetCounts.Tally(filter).counts() : null);
+    }
+
+    /**
+     * BM25 of every document containing a term that starts with {@code prefix};
+     * a document matching several expansions gets their sum.
+     */
+    private Map<Long, Double> scorePrefix(String prefix) {
+        Map<Long, Double> scores = new HashMap<>();
+        int documentCount = documents.size();
+        double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+
+        for (Map<Long, Integer> termPostings : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+
+            termPostings.forEach((productId, frequency) -> {
+                int length = documents.get(productId).length();
+                double norm = frequency + K1 * (1 - B + B * length / averageLength);
+                scores.merge(productId, idf * frequency * (K1 + 1) / norm, Double::sum);
+            });
+        }
+        return scores;
+    }
+
+    private static List<Long> topK(Map<Long, Double> scores, long offset, int limit) {
+        long k = offset + limit;
+        if (offset >= scores.size() || limit <= 0) {
+            return List.of();
+        }
+
+        // best = highest score, then lowest id, so pages are stable
+        Comparator<Map.Entry<Long, Double>> better = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(better);
+
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return ranked.subList((int) offset, ranked.size());
+    }
+
+    private void put(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                unindex(product.getId());
+
+                Map<String, Integer> frequencies = new HashMap<>();
+                SearchTokenizer.tokenize(product.getTitle()).forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+                SearchTokenizer.tokenize(product.getDescription()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+                int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+                documents.put(product.getId(), new Document(frequencies, length, product.getCategoryId(),
+                        PriceRange.of(product.getPrice())));
+                totalLength += length;
+                frequencies.forEach((term, frequency) ->
+                        postings.computeIfAbsent(term, t -> new HashMap<>()).put(product.getId(), frequency));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::unindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private void unindex(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+
+        totalLength -= document.length();
+        for (String term : document.termFrequencies().keySet()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(productId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.ecommerce.product.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ecommerce.product.model.db.projection.ProductTitle;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+import com.ecommerce.product.repository.db.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prefix trie over the distinct tokens of product titles, for search box
+ * suggestions. A token's popularity is the number of products whose title
+ * contains it. Every node keeps the top search.suggest.top.k tokens of its
+ * subtree, so a lookup walks the prefix and copies one array, whatever the
+ * catalogue size.
+ *
+ * Children are kept in sorted arrays rather than maps, so memory stays close
+ * to one small node per character of the distinct tokens. Per product only
+ * its title tokens are kept, to take them back when the title changes.
+ *
+ * Like ProductSearchIndex, the trie is built after startup and then follows
+ * catalogue ProductsChangedEvents (including other instances' ones, through
+ * ProductChangeFeed) on the single thread of suggestIndexExecutor, and a
+ * change it cannot apply has the next reconcile re-read every title. A count change recomputes the top lists on its path
+ * only: a node's best tokens are among its own token and its children's best
+ * tokens.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.suggest.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSuggestIndex {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_NODES;
+        // the token ending here, and in how many titles it occurs (0 = none)
+        private String token;
+        private int count;
+        // most popular tokens of this subtree, best first
+        private Node[] top = NO_NODES;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char key) {
+            int index = -Arrays.binarySearch(keys, key) - 1;
+            Node child = new Node();
+
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = key;
+            newChildren[index] = child;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+
+    // most popular first, then alphabetical
+    private static final Comparator<Node> POPULARITY = Comparator.<Node>comparingInt(node -> node.count).reversed()
+            .thenComparing(node -> node.token);
+
+    private final ProductRepository productRepository;
+    private final TaskExecutor writer;
+    private final int topK;
+    private final int buildBatchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Long, String[]> productTokens = new HashMap<>();
+
+    private volatile boolean ready;
+    // set when a change could not be applied; reconcile() then re-reads every title
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public ProductSuggestIndex(ProductRepository productRepository,
+            @Qualifier("suggestIndexExecutor") TaskExecutor writer,
+            @Value("${search.suggest.top.k:10}") int topK,
+            @Value("${search.suggest.build.batch.size:1000}") int buildBatchSize) {
+        this.productRepository = productRepository;
+        this.writer = writer;
+        this.topK = topK;
+        this.buildBatchSize = buildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            writer.execute(this::retitleAll);
+        } catch (TaskRejectedException e) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Re-reads every title once a change was dropped (writer queue full) or
+     * failed, or the build failed. Suggestions keep being served meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${search.suggest.reconcile.ms:60000}", initialDelayString = "${search.suggest.reconcile.ms:60000}")
+    public void reconcile() {
+        if (!dirty.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            writer.execute(this::retitleAll);
+        } catch (TaskRejectedException e) {
+            dirty.set(true);
+            log.warn("[Suggest] Writer queue is full, reconciling the trie later.");
+        }
+    }
+
+    // on the writer thread, so no change is applied meanwhile
+    private void retitleAll() {
+        long started = System.currentTimeMillis();
+        long lastId = 0;
+        int indexed = 0;
+        // the first build ranks once at the end; a live trie is kept ranked
+        boolean rank = ready;
+
+        Set<Long> stale;
+        lock.readLock().lock();
+        try {
+            stale = new HashSet<>(productTokens.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            List<ProductTitle> batch;
+            do {
+                batch = productRepository.findTitlesByIdGreaterThanOrderByIdAsc(lastId, Limit.of(buildBatchSize));
+                lock.writeLock().lock();
+                try {
+                    batch.forEach(title -> retitle(title.id(), title.title(), rank));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                batch.forEach(title -> stale.remove(title.id()));
+                indexed += batch.size();
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).id();
+                }
+            } while (batch.size() == buildBatchSize);
+
+            lock.writeLock().lock();
+            try {
+                // deleted while their change was lost
+                stale.forEach(productId -> retitle(productId, null, rank));
+                if (!rank) {
+                    rankSubtree(root);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            ready = true;
+            log.info("[Suggest] Indexed titles of {} products ({} removed) in {} ms.", indexed, stale.size(),
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            dirty.set(true);
+            log.error("[Suggest] Reading the titles failed, retrying on the next reconcile. Error: {}",
+                    e.getMessage(), e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (event.stockOnly()) {
+            return;
+        }
+
+        List<Long> productIds = List.copyOf(event.productIds());
+        try {
+            writer.execute(() -> {
+                try {
+                    Map<Long, String> titles = productRepository.findTitlesByIdIn(productIds).stream()
+                            .collect(Collectors.toMap(ProductTitle::id, ProductTitle::title));
+
+                    lock.writeLock().lock();
+                    try {
+                        // a deleted product has no title left
+                        productIds.forEach(productId -> retitle(productId, titles.get(productId), true));
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                } catch (Exception e) {
+                    dirty.set(true);
+                    log.error("[Suggest] Could not update titles of productIds: {}, reconciling the trie. Error: {}",
+                            productIds, e.getMessage(), e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            dirty.set(true);
+            log.warn("[Suggest] Writer queue is full, productIds: {} are left to the next reconcile.", productIds);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return up to limit (at most search.suggest.top.k) title tokens starting
+     *         with prefix, most popular first; none while the trie is building.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (!ready || prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            Node[] top = node.top;
+            List<String> tokens = new ArrayList<>(Math.min(limit, top.length));
+            for (int i = 0; i < top.length && i < limit; i++) {
+                tokens.add(top[i].token);
+            }
+            return tokens;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // caller holds the write lock; title null removes the product
+    private void retitle(Long productId, String title, boolean rank) {
+        String[] oldTokens = productTokens.getOrDefault(productId, new String[0]);
+        String[] newTokens = SearchTokenizer.tokenize(title).stream().distinct().toArray(String[]::new);
+
+        Set<String> before = Set.of(oldTokens);
+        Set<String> after = Set.of(newTokens);
+        for (String token : oldTokens) {
+            if (!after.contains(token)) {
+                adjust(token, -1, rank);
+            }
+        }
+        for (String token : newTokens) {
+            if (!before.contains(token)) {
+                adjust(token, 1, rank);
+            }
+        }
+
+        if (newTokens.length == 0) {
+            productTokens.remove(productId);
+        } else {
+            productTokens.put(productId, newTokens);
+        }
+    }
+
+    private void adjust(String token, int delta, boolean rank) {
+        Node[] path = new Node[token.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < token.length(); i++) {
+            Node child = path[i].child(token.charAt(i));
+            path[i + 1] = child != null ? child : path[i].addChild(token.charAt(i));
+        }
+
+        Node leaf = path[token.length()];
+        leaf.token = token;
+        leaf.count += delta;
+
+        for (int depth = token.length(); depth >= 0; depth--) {
+            Node node = path[depth];
+            if (depth > 0 && node.count == 0 && node.children.length == 0) {
+                path[depth - 1].removeChild(token.charAt(depth - 1));
+            } else if (rank) {
+                rank(node);
+            }
+        }
+    }
+
+    private void rankSubtree(Node node) {
+        for (Node child : node.children) {
+            rankSubtree(child);
+        }
+        rank(node);
+    }
+
+    private void rank(Node node) {
+        List<Node> candidates = new ArrayList<>();
+        if (node.count > 0) {
+            candidates.add(node);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+
+        candidates.sort(POPULARITY);
+        node.top = candidates.subList(0, Math.min(topK, candidates.size())).toArray(NO_NODES);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.product.service.search;
+
+/**
+ * Facet filters of a search; null fields do not filter.
+ */
+public record SearchFilter(Long categoryId, PriceRange priceRange) {
+
+    public static final SearchFilter NONE = new SearchFilter(null, null);
+
+    public Long minPrice() {
+        return priceRange != null ? priceRange.getMinPrice() : null;
+    }
+
+    public Long maxPrice() {
+        return priceRange != null ? priceRange.getMaxPrice() : null;
+    }
+
+    public boolean matchesCategory(Long productCategoryId) {
+        return categoryId == null || categoryId.equals(productCategoryId);
+    }
+
+    public boolean matchesPriceRange(PriceRange productPriceRange) {
+        return priceRange == null || priceRange == productPriceRange;
+    }
+}
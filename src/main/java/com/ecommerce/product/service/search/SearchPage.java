@@ -0,0 +1,12 @@
+package com.ecommerce.product.service.search;
+
+import org.springframework.data.domain.Slice;
+
+import com.ecommerce.product.controller.publicbrowse.dto.SearchFacets;
+
+/**
+ * One page of search results, with the facets of the whole search when they
+ * were asked for (null otherwise).
+ */
+public record SearchPage<T>(Slice<T> page, SearchFacets facets) {
+}
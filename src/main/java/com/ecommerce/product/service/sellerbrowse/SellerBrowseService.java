@@ -2,12 +2,27 @@ package com.ecommerce.product.service.sellerbrowse;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.ecommerce.product.controller.sellerbrowse.dto.ProductSellerResponse;
+import com.ecommerce.product.service.pagination.CursorPage;
+import com.ecommerce.product.service.pagination.PageTotal;
 
 public interface SellerBrowseService {
 
     Page<ProductSellerResponse> getMyProducts(Long categoryId, Pageable pageable);
 
+    /**
+     * A Page for EXACT, and for APPROXIMATE once an estimate exists; a plain
+     * Slice otherwise.
+     */
+    Slice<ProductSellerResponse> getMyProducts(Long categoryId, Pageable pageable, PageTotal total);
+
+    /**
+     * Keyset-paginated variant; {@code cursor} is null or blank for the first
+     * page, whose order then comes from {@code pageable}'s sort.
+     */
+    CursorPage<ProductSellerResponse> getMyProducts(Long categoryId, String cursor, Pageable pageable);
+
     ProductSellerResponse getMyProductById(Long productId);
 }
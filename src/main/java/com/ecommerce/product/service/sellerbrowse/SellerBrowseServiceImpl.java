@@ -1,7 +1,14 @@
 package com.ecommerce.product.service.sellerbrowse;
 
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -13,6 +20,13 @@ import com.ecommerce.product.exception.ProductAccessDeniedException;
 import com.ecommerce.product.exception.ProductNotFoundException;
 import com.ecommerce.product.model.db.entity.Product;
 import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.category.CategoryRegistry;
+import com.ecommerce.product.service.pagination.CursorPage;
+import com.ecommerce.product.service.pagination.PageTotal;
+import com.ecommerce.product.service.pagination.ProductCountEstimator;
+import com.ecommerce.product.service.pagination.ProductCountEstimator.Listing;
+import com.ecommerce.product.service.pagination.ProductCursor;
+import com.ecommerce.product.service.stock.StockStripingService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +38,9 @@ import lombok.extern.slf4j.Slf4j;
 public class SellerBrowseServiceImpl implements SellerBrowseService {
 
     private final ProductRepository productRepository;
+    private final StockStripingService stockStripingService;
+    private final CategoryRegistry categoryRegistry;
+    private final ProductCountEstimator productCountEstimator;
 
     @Override
     public Page<ProductSellerResponse> getMyProducts(Long categoryId, Pageable pageable) {
@@ -39,9 +56,62 @@ public class SellerBrowseServiceImpl implements SellerBrowseService {
             productPage = productRepository.findBySellerAdminId(sellerAdminId, pageable);
         }
 
+        stockStripingService.loadBucketTotals(productPage.getContent());
+        categoryRegistry.attach(productPage.getContent());
         return productPage.map(ProductSellerResponse::new);
     }
 
+    @Override
+    public Slice<ProductSellerResponse> getMyProducts(Long categoryId, Pageable pageable, PageTotal total) {
+        if (total == PageTotal.EXACT) {
+            return getMyProducts(categoryId, pageable);
+        }
+
+        Long sellerAdminId = getAuthenticatedSellerId();
+        log.info("Fetching seller's product slice for sellerAdminId: {} (Page: {}, Size: {}, Total: {})",
+                sellerAdminId, pageable.getPageNumber(), pageable.getPageSize(), total);
+
+        Slice<Product> productSlice;
+
+        if (categoryId != null) {
+            productSlice = productRepository.findSliceBySellerAdminIdAndCategoryId(sellerAdminId, categoryId, pageable);
+        } else {
+            productSlice = productRepository.findSliceBySellerAdminId(sellerAdminId, pageable);
+        }
+
+        stockStripingService.loadBucketTotals(productSlice.getContent());
+        categoryRegistry.attach(productSlice.getContent());
+
+        Slice<Product> result = total == PageTotal.APPROXIMATE
+                ? productCountEstimator.withEstimate(productSlice, Listing.ofSeller(sellerAdminId, categoryId))
+                : productSlice;
+        return result.map(ProductSellerResponse::new);
+    }
+
+    @Override
+    public CursorPage<ProductSellerResponse> getMyProducts(Long categoryId, String cursor, Pageable pageable) {
+        Long sellerAdminId = getAuthenticatedSellerId();
+        log.info("Fetching seller's product list for sellerAdminId: {} (Cursor: {}, Size: {})",
+                sellerAdminId, cursor, pageable.getPageSize());
+
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        Sort sort = after != null ? after.sort() : ProductCursor.firstPageSort(pageable);
+        ScrollPosition position = after != null ? after.toScrollPosition() : ScrollPosition.keyset();
+        Limit limit = Limit.of(pageable.getPageSize());
+
+        Window<Product> window;
+
+        if (categoryId != null) {
+            window = productRepository.findBySellerAdminIdAndCategoryId(sellerAdminId, categoryId, position, sort, limit);
+        } else {
+            window = productRepository.findBySellerAdminId(sellerAdminId, position, sort, limit);
+        }
+
+        stockStripingService.loadBucketTotals(window.getContent());
+        categoryRegistry.attach(window.getContent());
+        return ProductCursor.page(window, sort).map(ProductSellerResponse::new);
+    }
+
     @Override
     public ProductSellerResponse getMyProductById(Long productId) {
         Long sellerAdminId = getAuthenticatedSellerId();
@@ -50,6 +120,8 @@ public class SellerBrowseServiceImpl implements SellerBrowseService {
 
         Product product = getProductAndVerifyOwnership(productId, sellerAdminId);
 
+        stockStripingService.loadBucketTotals(List.of(product));
+        categoryRegistry.attach(List.of(product));
         return new ProductSellerResponse(product);
     }
 
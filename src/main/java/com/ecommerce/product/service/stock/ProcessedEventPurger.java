@@ -0,0 +1,82 @@
+package com.ecommerce.product.service.stock;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.product.repository.db.ProcessedEventRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retention for processed_event.
+ *
+ * A row only has to outlive every possible redelivery of its event, plus the
+ * stock engine's recovery window (StockReservationEngine settles in-doubt
+ * changes of the journal against processed_event). The default of
+ * saga.idempotency.retention.hours is twice the 7 day Kafka default retention;
+ * raise it together with the saga topics' retention.ms.
+ *
+ * Like OutboxEventPurger, rows are deleted in small chunks, each in its own
+ * short transaction. Replicas may purge concurrently; they only compete for
+ * the same oldest rows.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "saga.idempotency.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class ProcessedEventPurger {
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final Duration ttl;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+
+    public ProcessedEventPurger(ProcessedEventRepository processedEventRepository,
+            @Value("${saga.idempotency.retention.hours:336}") long ttlHours,
+            @Value("${saga.idempotency.retention.chunk.size:1000}") int chunkSize,
+            @Value("${saga.idempotency.retention.chunk.pause.ms:50}") long chunkPauseMs) {
+        this.processedEventRepository = processedEventRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.chunkSize = chunkSize;
+        this.chunkPauseMs = chunkPauseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${saga.idempotency.retention.delay.ms:600000}", initialDelayString = "${saga.idempotency.retention.initial.delay.ms:90000}")
+    public void purgeExpiredEvents() {
+        Instant cutoff = Instant.now().minus(ttl);
+        int deleted = 0;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int count = processedEventRepository.deleteProcessedBefore(cutoff, chunkSize);
+                deleted += count;
+
+                if (count < chunkSize) {
+                    break;
+                }
+                pause();
+            }
+        } catch (Exception e) {
+            log.error("[Saga] processed_event retention run failed. Error: {}", e.getMessage(), e);
+        }
+
+        if (deleted > 0) {
+            log.info("[Saga] Purged {} processed events older than {}.", deleted, cutoff);
+        }
+    }
+
+    private void pause() {
+        if (chunkPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.product.service.stock;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecommerce.product.repository.db.ProcessedEventRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deduplicates consumed saga events by eventId.
+ *
+ * The processed_event row is inserted in the caller's transaction, so it
+ * commits or rolls back together with the stock changes. A bounded LRU of
+ * recently committed eventIds sits in front of it: redeliveries seen recently
+ * are rejected without touching the DB, and a new event costs a single
+ * INSERT IGNORE instead of a read followed by a write.
+ */
+@Slf4j
+@Component
+public class ProcessedEventRegistry {
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final Set<String> recentEventIds;
+
+    public ProcessedEventRegistry(ProcessedEventRepository processedEventRepository,
+            @Value("${saga.idempotency.cache.size:10000}") int cacheSize) {
+        this.processedEventRepository = processedEventRepository;
+        this.recentEventIds = Collections.newSetFromMap(Collections.synchronizedMap(
+                new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > cacheSize;
+                    }
+                }));
+    }
+
+    /**
+     * Must be called inside the transaction that applies the event.
+     *
+     * @return true if the event is new and should be processed, false if it is
+     *         a duplicate.
+     */
+    public boolean markProcessed(String eventId, String eventType) {
+        if (recentEventIds.contains(eventId)) {
+            return false;
+        }
+
+        if (processedEventRepository.insertIfAbsent(eventId, eventType) == 0) {
+            recentEventIds.add(eventId);
+            return false;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentEventIds.add(eventId);
+            }
+        });
+
+        return true;
+    }
+}
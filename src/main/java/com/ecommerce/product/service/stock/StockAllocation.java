@@ -0,0 +1,23 @@
+package com.ecommerce.product.service.stock;
+
+import com.ecommerce.product.model.db.entity.StockReservation;
+
+/**
+ * Where one order line's stock was reserved. A line split over several buckets
+ * has one allocation per bucket. bucketNo is only set for
+ * StockReservation.HOLDER_BUCKET.
+ */
+public record StockAllocation(Long productId, int quantity, String holder, Integer bucketNo) {
+
+    public static StockAllocation row(Long productId, int quantity) {
+        return new StockAllocation(productId, quantity, StockReservation.HOLDER_ROW, null);
+    }
+
+    public static StockAllocation bucket(Long productId, int bucketNo, int quantity) {
+        return new StockAllocation(productId, quantity, StockReservation.HOLDER_BUCKET, bucketNo);
+    }
+
+    public static StockAllocation engine(Long productId, int quantity) {
+        return new StockAllocation(productId, quantity, StockReservation.HOLDER_ENGINE, null);
+    }
+}
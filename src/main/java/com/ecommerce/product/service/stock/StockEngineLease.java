@@ -0,0 +1,135 @@
+package com.ecommerce.product.service.stock;
+
+import java.net.InetAddress;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-owner lease of the StockReservationEngine (a stock_engine_lease row).
+ *
+ * The engine writes absolute stock values, so two live engines would overwrite
+ * each other. Expiry is judged by the database clock; locally the lease counts
+ * as held until a margin before its duration runs out from the moment the last
+ * successful acquire or renew was sent, so this side gives up before any other
+ * instance can take over.
+ */
+@Slf4j
+public class StockEngineLease {
+
+    private static final String LEASE_NAME = "stock-engine";
+    private static final long ACQUIRE_RETRY_MS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long leaseMs;
+    private final String owner = resolveOwner();
+
+    // System.nanoTime() until which this instance may take changes
+    private volatile long heldUntilNanos = System.nanoTime();
+
+    public StockEngineLease(JdbcTemplate jdbcTemplate, long leaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseMs = leaseMs;
+    }
+
+    /**
+     * Waits up to one lease duration for a previous owner's lease to expire.
+     *
+     * @throws IllegalStateException when another instance still holds it.
+     */
+    public void acquire() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseMs + ACQUIRE_RETRY_MS);
+        while (!tryAcquire()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(
+                        "Stock engine lease is held by another instance; the engine runs on a single instance");
+            }
+            try {
+                Thread.sleep(ACQUIRE_RETRY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while acquiring the stock engine lease", e);
+            }
+        }
+        log.info("[StockEngine] Acquired the engine lease as {}.", owner);
+    }
+
+    /**
+     * Extends the lease; inside a transaction it also locks the lease row until
+     * commit.
+     *
+     * @return false when another instance has taken the lease over.
+     */
+    public boolean renew() {
+        long sent = System.nanoTime();
+        int updated = jdbcTemplate.update("""
+                UPDATE stock_engine_lease
+                SET expires_at = TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))
+                WHERE name = ? AND owner = ?
+                """, leaseMs * 1000, LEASE_NAME, owner);
+        if (updated == 0) {
+            heldUntilNanos = sent;
+            return false;
+        }
+        extend(sent);
+        return true;
+    }
+
+    /**
+     * @throws IllegalStateException unless the lease is surely still held.
+     */
+    public void check() {
+        if (System.nanoTime() - heldUntilNanos > 0) {
+            throw new IllegalStateException("Stock engine lease is not held by this instance");
+        }
+    }
+
+    public void release() {
+        heldUntilNanos = System.nanoTime();
+        try {
+            jdbcTemplate.update("DELETE FROM stock_engine_lease WHERE name = ? AND owner = ?", LEASE_NAME, owner);
+        } catch (Exception e) {
+            // expires on its own
+            log.warn("[StockEngine] Could not release the engine lease. Error: {}", e.getMessage());
+        }
+    }
+
+    private boolean tryAcquire() {
+        long sent = System.nanoTime();
+        int updated = jdbcTemplate.update("""
+                INSERT IGNORE INTO stock_engine_lease (name, owner, expires_at)
+                VALUES (?, ?, TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3)))
+                """, LEASE_NAME, owner, leaseMs * 1000);
+        if (updated == 0) {
+            updated = jdbcTemplate.update("""
+                    UPDATE stock_engine_lease
+                    SET owner = ?, expires_at = TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))
+                    WHERE name = ? AND (owner = ? OR expires_at < CURRENT_TIMESTAMP(3))
+                    """, owner, leaseMs * 1000, LEASE_NAME, owner);
+        }
+        if (updated == 0) {
+            return false;
+        }
+        extend(sent);
+        return true;
+    }
+
+    private void extend(long sent) {
+        // a tenth of the lease covers clock rate drift between this host and MySQL
+        heldUntilNanos = sent + TimeUnit.MILLISECONDS.toNanos(leaseMs - leaseMs / 10);
+    }
+
+    private static String resolveOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        // suffix keeps owners distinct across restarts of the same host
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,269 @@
+package com.ecommerce.product.service.stock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only binary journal of one StockReservationEngine partition.
+ *
+ * Entries are split over segment files named after the first sequence number
+ * they hold, so segments that are fully covered by a checkpoint can be deleted
+ * whole. Each record is length-prefixed and carries a CRC32; a torn record at
+ * the tail (crash mid-write) is cut off when the journal is opened.
+ *
+ * Not thread-safe: only the owning partition thread touches it.
+ */
+@Slf4j
+public class StockJournal implements Closeable {
+
+    public enum Type {
+        TENTATIVE, COMMIT, ROLLBACK, DIRECT
+    }
+
+    /**
+     * One journal record. Deltas are set for TENTATIVE and DIRECT, targetSeq for
+     * COMMIT and ROLLBACK; eventId is the saga event behind a TENTATIVE change.
+     */
+    public record Entry(Type type, long seq, long productId, int availableDelta, int reservedDelta,
+            long targetSeq, String eventId) {
+    }
+
+    // type, seq, productId, availableDelta, reservedDelta, targetSeq, eventId length
+    private static final int FIXED_SIZE = 1 + 8 + 8 + 4 + 4 + 8 + 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final String prefix;
+    private final long segmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+
+    public StockJournal(Path directory, int partition, long segmentBytes) {
+        this.directory = directory;
+        this.prefix = "partition-" + partition + "-";
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Reads every intact entry with seq >= fromSeq and opens the last segment for
+     * appending. A corrupt tail is truncated.
+     */
+    public List<Entry> open(long fromSeq) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            List<Entry> entries = new ArrayList<>();
+
+            for (int i = 0; i < segments.size(); i++) {
+                boolean last = i == segments.size() - 1;
+                long validBytes = read(segments.get(i), fromSeq, entries);
+
+                if (validBytes < Files.size(segments.get(i))) {
+                    if (!last) {
+                        throw new IllegalStateException("Corrupt stock journal segment " + segments.get(i));
+                    }
+                    log.warn("[StockEngine] Truncating torn tail of {} at byte {}.", segments.get(i), validBytes);
+                    try (FileChannel tail = FileChannel.open(segments.get(i), StandardOpenOption.WRITE)) {
+                        tail.truncate(validBytes);
+                    }
+                }
+            }
+
+            if (!segments.isEmpty()) {
+                channel = openForAppend(segments.get(segments.size() - 1));
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void append(Entry entry) {
+        byte[] eventId = entry.eventId() == null ? new byte[0] : entry.eventId().getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_SIZE + eventId.length;
+
+        if (buffer.remaining() < 4 + length + 4) {
+            writeBuffer();
+        }
+        if (channel == null) {
+            roll(entry.seq());
+        }
+
+        buffer.putInt(length);
+        int start = buffer.position();
+        buffer.put((byte) entry.type().ordinal())
+                .putLong(entry.seq())
+                .putLong(entry.productId())
+                .putInt(entry.availableDelta())
+                .putInt(entry.reservedDelta())
+                .putLong(entry.targetSeq())
+                .putShort((short) eventId.length)
+                .put(eventId);
+
+        crc.reset();
+        crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Writes buffered entries and, if {@code fsync}, forces them to disk. One call
+     * per drained command batch: this is the group commit.
+     */
+    public void sync(boolean fsync) {
+        writeBuffer();
+        if (fsync && channel != null) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Starts a new segment at {@code nextSeq} once the current one is large enough.
+     */
+    public void rollIfLarger(long nextSeq) {
+        try {
+            if (channel != null && channel.size() + buffer.position() >= segmentBytes) {
+                sync(true);
+                roll(nextSeq);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes segments that only hold entries below {@code seq}.
+     */
+    public void deleteSegmentsBefore(long seq) {
+        try {
+            List<Path> segments = segments();
+            for (int i = 0; i < segments.size() - 1; i++) {
+                if (firstSeq(segments.get(i + 1)) <= seq) {
+                    Files.deleteIfExists(segments.get(i));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[StockEngine] Could not delete old journal segments. Error: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        sync(true);
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void roll(long firstSeq) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            channel = openForAppend(directory.resolve(String.format("%s%020d.log", prefix, firstSeq)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBuffer() {
+        if (buffer.position() == 0) {
+            return;
+        }
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long read(Path segment, long fromSeq, List<Entry> entries) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(segment));
+        long validBytes = 0;
+
+        try {
+            while (data.remaining() >= 4) {
+                int length = data.getInt();
+                if (length < FIXED_SIZE || length > data.remaining() - 4) {
+                    break;
+                }
+
+                ByteBuffer record = data.slice(data.position(), length);
+                data.position(data.position() + length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != data.getInt()) {
+                    break;
+                }
+
+                Entry entry = decode(record);
+                if (entry.seq() >= fromSeq) {
+                    entries.add(entry);
+                }
+                validBytes = data.position();
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // torn record, everything before validBytes is intact
+        }
+
+        return validBytes;
+    }
+
+    private static Entry decode(ByteBuffer record) {
+        Type type = Type.values()[record.get()];
+        long seq = record.getLong();
+        long productId = record.getLong();
+        int availableDelta = record.getInt();
+        int reservedDelta = record.getInt();
+        long targetSeq = record.getLong();
+        byte[] eventId = new byte[record.getShort()];
+        record.get(eventId);
+
+        return new Entry(type, seq, productId, availableDelta, reservedDelta, targetSeq,
+                eventId.length == 0 ? null : new String(eventId, StandardCharsets.UTF_8));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .sorted((a, b) -> Long.compare(firstSeq(a), firstSeq(b)))
+                    .toList();
+        }
+    }
+
+    private long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - ".log".length()));
+    }
+
+    private static FileChannel openForAppend(Path segment) throws IOException {
+        return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
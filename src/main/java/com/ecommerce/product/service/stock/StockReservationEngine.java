@@ -0,0 +1,696 @@
+package com.ecommerce.product.service.stock;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.product.service.stock.StockJournal.Entry;
+import com.ecommerce.product.service.stock.StockJournal.Type;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional in-memory stock engine (stock.engine.enabled=true).
+ *
+ * Available/reserved counters are authoritative in memory. Products are
+ * partitioned by id onto single-threaded owners, so decisions need no locks.
+ * Every change is appended to the partition's local journal, and callers are
+ * answered only after the drained command batch has been fsynced (group commit).
+ * Changes stay tentative until the caller's transaction completes; committed
+ * counters are written behind to products in JDBC batches, together with a
+ * per-partition checkpoint of the journal position.
+ *
+ * On startup each partition rebuilds from products plus the journal after its
+ * checkpoint. Changes whose outcome was never journaled are settled by looking
+ * up their saga eventId in processed_event, which commits with the saga step.
+ * That is only sound because a change given back inside the transaction (an
+ * INSUFFICIENT order, or {@link #cancel}) has its ROLLBACK journaled before the
+ * caller is answered, so before the transaction can commit.
+ *
+ * Striped products (see StockStripingService) are not owned by the engine and
+ * are returned to the caller as unowned. The engine writes absolute stock
+ * values, so it must run on a single instance: it takes StockEngineLease at
+ * startup (or refuses to start), renews it in every write-behind transaction,
+ * and stops taking changes once it can no longer be sure to hold it.
+ * Write-behind runs every stock.engine.flush.ms on the engine's own thread
+ * rather than the shared @Scheduled one, so a long purge run cannot hold up
+ * the lease renewal. Failing over to another host needs the journal directory
+ * to move with it. Changing stock.engine.partitions requires a clean shutdown
+ * first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stock.engine.enabled", havingValue = "true")
+public class StockReservationEngine {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDirectory;
+    private final boolean fsync;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final StockEngineLease lease;
+    private final long flushMs;
+    private final Partition[] partitions;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-engine-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int EVENT_ID_CHUNK = 500;
+
+    public StockReservationEngine(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${stock.engine.partitions:4}") int partitionCount,
+            @Value("${stock.engine.journal.dir:data/stock-journal}") String journalDirectory,
+            @Value("${stock.engine.journal.fsync:true}") boolean fsync,
+            @Value("${stock.engine.journal.segment.bytes:67108864}") long segmentBytes,
+            @Value("${stock.engine.batch.max:512}") int maxBatch,
+            @Value("${stock.engine.lease.ms:15000}") long leaseMs,
+            @Value("${stock.engine.flush.ms:200}") long flushMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalDirectory = Path.of(journalDirectory);
+        this.fsync = fsync;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        this.lease = new StockEngineLease(jdbcTemplate, leaseMs);
+        this.flushMs = flushMs;
+        this.partitions = new Partition[partitionCount];
+    }
+
+    public enum Outcome {
+        RESERVED, INSUFFICIENT
+    }
+
+    /**
+     * Result of {@link #reserveAsync}. Lines for products the engine does not own
+     * are left in {@code unowned} for the caller to reserve elsewhere; if that
+     * fails, the caller must {@link #cancel} this reservation.
+     */
+    public static final class Reservation {
+        private final Outcome outcome;
+        private final Map<Long, Integer> unowned;
+        private final List<Decision> decisions;
+
+        private Reservation(Outcome outcome, Map<Long, Integer> unowned, List<Decision> decisions) {
+            this.outcome = outcome;
+            this.unowned = unowned;
+            this.decisions = decisions;
+        }
+
+        public Outcome outcome() {
+            return outcome;
+        }
+
+        public Map<Long, Integer> unowned() {
+            return unowned;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        lease.acquire();
+
+        List<CompletableFuture<Void>> recoveries = new ArrayList<>();
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i);
+            recoveries.add(partitions[i].start());
+        }
+        // do not let consumers in before the counters are rebuilt
+        CompletableFuture.allOf(recoveries.toArray(CompletableFuture[]::new)).join();
+        flush();
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushMs, flushMs, TimeUnit.MILLISECONDS);
+
+        log.info("[StockEngine] Started with {} partitions, journal at {}.", partitions.length,
+                journalDirectory.toAbsolutePath());
+    }
+
+    /**
+     * Reserves all owned lines of an order, or none of them. The tentative change
+     * commits or rolls back with the caller's transaction.
+     */
+    public CompletableFuture<Reservation> reserveAsync(String eventId, Map<Long, Integer> quantities) {
+        requireTransaction();
+        lease.check();
+        List<CompletableFuture<Decision>> parts = new ArrayList<>();
+        byPartition(quantities).forEach((partition, lines) ->
+                parts.add(partition.submit(() -> partition.reserve(eventId, lines))));
+
+        resolveWithTransaction(parts);
+
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).thenCompose(done -> {
+            List<Decision> decisions = parts.stream().map(CompletableFuture::join).toList();
+            Map<Long, Integer> unowned = new TreeMap<>();
+            decisions.forEach(decision -> unowned.putAll(decision.unowned()));
+
+            if (decisions.stream().allMatch(Decision::succeeded)) {
+                return CompletableFuture.completedFuture(new Reservation(Outcome.RESERVED, unowned, decisions));
+            }
+            // some partition said no: give back what the others already took, and
+            // answer once that is journaled, i.e. before the transaction can commit
+            return CompletableFuture.allOf(resolve(decisions, false))
+                    .thenApply(journaled -> new Reservation(Outcome.INSUFFICIENT, unowned, decisions));
+        });
+    }
+
+    public Reservation reserve(String eventId, Map<Long, Integer> quantities) {
+        return reserveAsync(eventId, quantities).join();
+    }
+
+    /**
+     * Gives the reservation back; returns once that is journaled, so a crash
+     * after the caller's transaction commits cannot bring it back.
+     */
+    public void cancel(Reservation reservation) {
+        CompletableFuture.allOf(resolve(reservation.decisions, false)).join();
+    }
+
+    /**
+     * Confirms (payment succeeded) or releases reserved stock of owned products.
+     *
+     * @return per owned product whether enough was reserved; products the engine
+     *         does not own are absent.
+     */
+    public Map<Long, Boolean> settle(String eventId, Map<Long, Integer> quantities, boolean confirm) {
+        requireTransaction();
+        lease.check();
+        List<CompletableFuture<Decision>> parts = new ArrayList<>();
+        byPartition(quantities).forEach((partition, lines) ->
+                parts.add(partition.submit(() -> partition.settle(eventId, lines, confirm))));
+
+        resolveWithTransaction(parts);
+
+        Map<Long, Boolean> settled = new HashMap<>();
+        parts.forEach(part -> settled.putAll(part.join().settled()));
+        return settled;
+    }
+
+    /**
+     * Sets the available stock of an owned product, e.g. after a seller edit.
+     * Applied immediately; call it once the edit has committed.
+     */
+    public void setAvailable(Long productId, int stockAvailable) {
+        lease.check();
+        Partition partition = partitionOf(productId);
+        partition.submit(() -> partition.setAvailable(productId, stockAvailable)).join();
+    }
+
+    /**
+     * Writes committed counters behind and renews the lease. Runs on the
+     * flusher thread; callers outside it (startup, shutdown) are serialized.
+     */
+    public synchronized void flush() {
+        boolean renewed = false;
+        for (Partition partition : partitions) {
+            if (partition != null) {
+                renewed |= flush(partition);
+            }
+        }
+
+        if (!renewed && !lease.renew()) {
+            log.error("[StockEngine] Lost the engine lease to another instance; no longer taking changes.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(flushMs + 5000, TimeUnit.MILLISECONDS)) {
+                log.warn("[StockEngine] Write-behind did not stop in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        for (Partition partition : partitions) {
+            partition.stop();
+        }
+        lease.release();
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // an exception would cancel the periodic task, and with it the lease renewal
+            log.error("[StockEngine] Write-behind run failed. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return whether a write-behind transaction committed, which also renewed the lease.
+     */
+    private boolean flush(Partition partition) {
+        Snapshot snapshot = partition.submit(partition::snapshot).join();
+        if (snapshot.lastSeq() == partition.checkpointedSeq && snapshot.rows().isEmpty()) {
+            return false;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // holds the lease row until commit, so no other instance can take
+                // over between this check and the absolute writes below
+                if (!lease.renew()) {
+                    throw new IllegalStateException("Stock engine lease is held by another instance");
+                }
+                jdbcTemplate.batchUpdate("UPDATE products SET stock_available = ?, stock_reserved = ? WHERE id = ?",
+                        snapshot.rows(), snapshot.rows().size(), (ps, row) -> {
+                            ps.setInt(1, row.stockAvailable());
+                            ps.setInt(2, row.stockReserved());
+                            ps.setLong(3, row.productId());
+                        });
+                jdbcTemplate.update("INSERT INTO stock_engine_checkpoint (partition_no, last_seq, replay_from_seq) "
+                        + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE last_seq = VALUES(last_seq), "
+                        + "replay_from_seq = VALUES(replay_from_seq), updated_at = CURRENT_TIMESTAMP",
+                        partition.no, snapshot.lastSeq(), snapshot.replayFromSeq());
+            });
+        } catch (Exception e) {
+            log.error("[StockEngine] Write-behind of partition {} failed, will retry. Error: {}",
+                    partition.no, e.getMessage());
+            partition.submit(() -> partition.markDirty(snapshot.rows()));
+            return false;
+        }
+
+        partition.checkpointedSeq = snapshot.lastSeq();
+        partition.submit(() -> partition.trimJournal(snapshot.replayFromSeq()));
+        return true;
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock engine changes must be made inside a transaction");
+        }
+    }
+
+    private void resolveWithTransaction(List<CompletableFuture<Decision>> parts) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                parts.forEach(part -> part.thenAccept(decision -> resolve(List.of(decision), committed)));
+            }
+        });
+    }
+
+    /**
+     * @return one future per partition involved, completed once its outcome
+     *         entries are journaled (and synced).
+     */
+    private CompletableFuture<?>[] resolve(List<Decision> decisions, boolean commit) {
+        List<CompletableFuture<Void>> resolved = new ArrayList<>();
+        for (Decision decision : decisions) {
+            if (!decision.seqs().isEmpty()) {
+                resolved.add(decision.partition().submit(() -> decision.partition().resolve(decision.seqs(), commit)));
+            }
+        }
+        return resolved.toArray(CompletableFuture[]::new);
+    }
+
+    private Map<Partition, Map<Long, Integer>> byPartition(Map<Long, Integer> quantities) {
+        Map<Partition, Map<Long, Integer>> grouped = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) ->
+                grouped.computeIfAbsent(partitionOf(productId), p -> new TreeMap<>()).put(productId, quantity));
+        return grouped;
+    }
+
+    private Partition partitionOf(Long productId) {
+        return partitions[Math.floorMod(Long.hashCode(productId), partitions.length)];
+    }
+
+    private Set<String> committedEventIds(Collection<String> eventIds) {
+        Set<String> committed = new HashSet<>();
+        List<String> ids = new ArrayList<>(new HashSet<>(eventIds));
+
+        for (int from = 0; from < ids.size(); from += EVENT_ID_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(from + EVENT_ID_CHUNK, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            committed.addAll(jdbcTemplate.queryForList(
+                    "SELECT event_id FROM processed_event WHERE event_id IN (" + placeholders + ")",
+                    String.class, chunk.toArray()));
+        }
+        return committed;
+    }
+
+    private static final class Counter {
+        // effective values, including tentative changes; decisions use these
+        int available;
+        int reserved;
+        // values as of the last committed change; these are written behind
+        int committedAvailable;
+        int committedReserved;
+        // striped products stay with StockStripingService
+        final boolean owned;
+
+        Counter(int available, int reserved, boolean owned) {
+            this.available = this.committedAvailable = available;
+            this.reserved = this.committedReserved = reserved;
+            this.owned = owned;
+        }
+    }
+
+    private record Decision(Partition partition, boolean succeeded, Map<Long, Integer> unowned,
+            Map<Long, Boolean> settled, List<Long> seqs) {
+    }
+
+    private record Row(long productId, int stockAvailable, int stockReserved) {
+    }
+
+    private record Snapshot(long lastSeq, long replayFromSeq, List<Row> rows) {
+    }
+
+    private static final class Task<T> {
+        final Supplier<T> body;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        RuntimeException error;
+
+        Task(Supplier<T> body) {
+            this.body = body;
+        }
+
+        void execute() {
+            try {
+                result = body.get();
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        void complete(RuntimeException syncError) {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else if (syncError != null) {
+                future.completeExceptionally(syncError);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    /**
+     * One owner thread with its counters, pending (tentative) changes and journal.
+     * All fields below are only touched from that thread.
+     */
+    private final class Partition implements Runnable {
+
+        final int no;
+        final StockJournal journal;
+        final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+        final Map<Long, Counter> counters = new HashMap<>();
+        final Set<Long> dirty = new HashSet<>();
+        // unresolved TENTATIVE entries by seq
+        final TreeMap<Long, Entry> pending = new TreeMap<>();
+        final Thread thread;
+
+        long seq;
+        volatile long checkpointedSeq = -1;
+        volatile boolean running = true;
+
+        Partition(int no) {
+            this.no = no;
+            this.journal = new StockJournal(journalDirectory, no, segmentBytes);
+            this.thread = new Thread(this, "stock-engine-" + no);
+        }
+
+        CompletableFuture<Void> start() {
+            CompletableFuture<Void> recovered = submit(() -> {
+                recover();
+                return null;
+            });
+            thread.start();
+            return recovered;
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<T> body) {
+            Task<T> task = new Task<>(body);
+            queue.add(task);
+            return task.future;
+        }
+
+        @Override
+        public void run() {
+            List<Task<?>> batch = new ArrayList<>(maxBatch);
+
+            while (running || !queue.isEmpty()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                    continue;
+                }
+                queue.drainTo(batch, maxBatch - 1);
+
+                batch.forEach(Task::execute);
+
+                RuntimeException syncError = null;
+                try {
+                    journal.sync(fsync);
+                } catch (RuntimeException e) {
+                    log.error("[StockEngine] Journal sync of partition {} failed. Error: {}", no, e.getMessage(), e);
+                    syncError = e;
+                }
+
+                for (Task<?> task : batch) {
+                    task.complete(syncError);
+                }
+                batch.clear();
+            }
+
+            journal.close();
+        }
+
+        void stop() {
+            submit(() -> {
+                running = false;
+                return null;
+            });
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Decision reserve(String eventId, Map<Long, Integer> lines) {
+            Map<Long, Integer> unowned = new TreeMap<>();
+            Map<Long, Integer> owned = new TreeMap<>();
+
+            for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+                Counter counter = counter(line.getKey());
+                if (counter != null && !counter.owned) {
+                    unowned.put(line.getKey(), line.getValue());
+                } else if (counter == null || counter.available < line.getValue()) {
+                    return new Decision(this, false, unowned, Map.of(), List.of());
+                } else {
+                    owned.put(line.getKey(), line.getValue());
+                }
+            }
+
+            List<Long> seqs = new ArrayList<>(owned.size());
+            owned.forEach((productId, quantity) -> seqs.add(tentative(eventId, productId, -quantity, quantity)));
+            return new Decision(this, true, unowned, Map.of(), seqs);
+        }
+
+        Decision settle(String eventId, Map<Long, Integer> lines, boolean confirm) {
+            Map<Long, Boolean> settled = new HashMap<>();
+            List<Long> seqs = new ArrayList<>();
+
+            lines.forEach((productId, quantity) -> {
+                Counter counter = counter(productId);
+                if (counter != null && !counter.owned) {
+                    return;
+                }
+                if (counter == null || counter.reserved < quantity) {
+                    settled.put(productId, false);
+                    return;
+                }
+                seqs.add(tentative(eventId, productId, confirm ? 0 : quantity, -quantity));
+                settled.put(productId, true);
+            });
+
+            return new Decision(this, true, Map.of(), settled, seqs);
+        }
+
+        Void resolve(List<Long> seqs, boolean commit) {
+            for (Long target : seqs) {
+                Entry entry = pending.remove(target);
+                if (entry == null) {
+                    continue;
+                }
+                journal.append(new Entry(commit ? Type.COMMIT : Type.ROLLBACK, ++seq, entry.productId(), 0, 0,
+                        target, null));
+                if (commit) {
+                    applyCommitted(entry);
+                } else {
+                    Counter counter = counters.get(entry.productId());
+                    counter.available -= entry.availableDelta();
+                    counter.reserved -= entry.reservedDelta();
+                }
+            }
+            return null;
+        }
+
+        Void setAvailable(Long productId, int stockAvailable) {
+            Counter counter = counter(productId);
+            if (counter == null || !counter.owned) {
+                return null;
+            }
+
+            int delta = stockAvailable - counter.available;
+            if (delta != 0) {
+                Entry entry = new Entry(Type.DIRECT, ++seq, productId, delta, 0, 0, null);
+                journal.append(entry);
+                counter.available += delta;
+                applyCommitted(entry);
+            }
+            return null;
+        }
+
+        Snapshot snapshot() {
+            List<Row> rows = new ArrayList<>(dirty.size());
+            for (Long productId : dirty) {
+                Counter counter = counters.get(productId);
+                rows.add(new Row(productId, counter.committedAvailable, counter.committedReserved));
+            }
+            dirty.clear();
+
+            long replayFrom = pending.isEmpty() ? seq + 1 : pending.firstKey();
+            journal.rollIfLarger(seq + 1);
+            return new Snapshot(seq, replayFrom, rows);
+        }
+
+        Void markDirty(List<Row> rows) {
+            rows.forEach(row -> dirty.add(row.productId()));
+            return null;
+        }
+
+        Void trimJournal(long replayFromSeq) {
+            journal.deleteSegmentsBefore(replayFromSeq);
+            return null;
+        }
+
+        private long tentative(String eventId, Long productId, int availableDelta, int reservedDelta) {
+            Entry entry = new Entry(Type.TENTATIVE, ++seq, productId, availableDelta, reservedDelta, 0, eventId);
+            journal.append(entry);
+            pending.put(entry.seq(), entry);
+
+            Counter counter = counters.get(productId);
+            counter.available += availableDelta;
+            counter.reserved += reservedDelta;
+            return entry.seq();
+        }
+
+        private void applyCommitted(Entry entry) {
+            Counter counter = counters.get(entry.productId());
+            counter.committedAvailable += entry.availableDelta();
+            counter.committedReserved += entry.reservedDelta();
+            dirty.add(entry.productId());
+        }
+
+        private Counter counter(Long productId) {
+            Counter counter = counters.get(productId);
+            if (counter == null) {
+                counter = jdbcTemplate.query(
+                        "SELECT stock_available, stock_reserved, stock_striped FROM products WHERE id = ?",
+                        rs -> rs.next() ? new Counter(rs.getInt(1), rs.getInt(2), !rs.getBoolean(3)) : null,
+                        productId);
+                if (counter != null) {
+                    counters.put(productId, counter);
+                }
+            }
+            return counter;
+        }
+
+        /**
+         * Rebuilds counters from products (as of the checkpoint) plus the journal.
+         */
+        private void recover() {
+            List<Map<String, Object>> checkpoint = jdbcTemplate.queryForList(
+                    "SELECT last_seq, replay_from_seq FROM stock_engine_checkpoint WHERE partition_no = ?", no);
+            long lastSeq = checkpoint.isEmpty() ? 0 : ((Number) checkpoint.get(0).get("last_seq")).longValue();
+            long replayFrom = checkpoint.isEmpty() ? 0 : ((Number) checkpoint.get(0).get("replay_from_seq")).longValue();
+
+            List<Entry> entries = journal.open(replayFrom);
+            Map<Long, Entry> unresolved = new TreeMap<>();
+            seq = lastSeq;
+            int replayed = 0;
+
+            for (Entry entry : entries) {
+                seq = Math.max(seq, entry.seq());
+                switch (entry.type()) {
+                    case TENTATIVE -> unresolved.put(entry.seq(), entry);
+                    case COMMIT, ROLLBACK -> {
+                        Entry target = unresolved.remove(entry.targetSeq());
+                        // outcomes up to the checkpoint are already in products
+                        if (entry.type() == Type.COMMIT && entry.seq() > lastSeq && target != null) {
+                            replay(target);
+                            replayed++;
+                        }
+                    }
+                    case DIRECT -> {
+                        if (entry.seq() > lastSeq) {
+                            replay(entry);
+                            replayed++;
+                        }
+                    }
+                }
+            }
+
+            // outcome never journaled: the saga step committed iff its processed_event
+            // row exists (changes it gave back itself were journaled before it committed)
+            Set<String> committed = committedEventIds(unresolved.values().stream().map(Entry::eventId).toList());
+            for (Entry entry : unresolved.values()) {
+                boolean commit = committed.contains(entry.eventId());
+                journal.append(new Entry(commit ? Type.COMMIT : Type.ROLLBACK, ++seq, entry.productId(), 0, 0,
+                        entry.seq(), null));
+                if (commit) {
+                    replay(entry);
+                    replayed++;
+                }
+            }
+
+            log.info("[StockEngine] Partition {} recovered from checkpoint {}: {} changes replayed, {} in-doubt settled.",
+                    no, lastSeq, replayed, unresolved.size());
+        }
+
+        private void replay(Entry entry) {
+            Counter counter = counter(entry.productId());
+            if (counter == null) {
+                return;
+            }
+            counter.available += entry.availableDelta();
+            counter.reserved += entry.reservedDelta();
+            applyCommitted(entry);
+        }
+    }
+}
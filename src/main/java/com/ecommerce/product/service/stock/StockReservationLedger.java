@@ -0,0 +1,244 @@
+package com.ecommerce.product.service.stock;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.product.model.db.entity.StockReservation;
+import com.ecommerce.product.repository.db.StockReservationRepository;
+import com.ecommerce.product.repository.db.StockReservationRepository.OpenLineCount;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-order record of reserved stock (stock_reservation), written when an
+ * order is reserved and settled as a whole when its payment result arrives.
+ *
+ * Settling only touches lines still RESERVED, so repeated or out-of-order
+ * payment results are no-ops. Must be called inside the caller's transaction.
+ *
+ * A line split over several buckets is one BUCKET line per bucket, each settled
+ * against exactly its bucket. Only if that bucket no longer holds the quantity
+ * (a pre-ledger order's payment settled it under saga.ledger.legacy-fallback,
+ * not knowing its buckets) is the line settled from the product's other
+ * buckets instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockReservationLedger {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final StockStripingService stockStripingService;
+    private final ObjectProvider<StockReservationEngine> stockReservationEngine;
+
+    public record Settlement(boolean known, int open, int stuck) {
+    }
+
+    public void record(Map<Long, List<StockAllocation>> allocationsByOrder) {
+        List<StockReservation> lines = new ArrayList<>();
+
+        allocationsByOrder.forEach((orderId, allocations) -> allocations.forEach(allocation ->
+                lines.add(StockReservation.builder()
+                        .orderId(orderId)
+                        .productId(allocation.productId())
+                        .quantity(allocation.quantity())
+                        .holder(allocation.holder())
+                        .bucketNo(allocation.bucketNo())
+                        .state(StockReservation.STATE_RESERVED)
+                        .build())));
+
+        stockReservationRepository.insertAll(lines);
+    }
+
+    /**
+     * Confirms (payment succeeded) or releases every open line of the order.
+     *
+     * @return known=false if the order has no ledger lines at all (reserved
+     *         before the ledger existed); otherwise how many lines were open and
+     *         how many could not be settled.
+     */
+    public Settlement settle(Long orderId, String eventId, boolean confirm) {
+        long open = stockReservationRepository.countByOrderIdAndState(orderId, StockReservation.STATE_RESERVED);
+        if (open == 0) {
+            return new Settlement(stockReservationRepository.existsByOrderId(orderId), 0, 0);
+        }
+
+        if (confirm) {
+            stockReservationRepository.confirmRowReservations(orderId);
+            stockReservationRepository.confirmBucketReservations(orderId);
+        } else {
+            stockReservationRepository.releaseRowReservations(orderId);
+            stockReservationRepository.releaseBucketReservations(orderId);
+        }
+        settleEngineLines(orderId, eventId, confirm);
+
+        long stuck = stockReservationRepository.countByOrderIdAndState(orderId, StockReservation.STATE_RESERVED);
+        if (stuck > 0) {
+            List<StockReservation> bucketLines = stockReservationRepository.findByOrderIdAndHolderAndState(
+                    orderId, StockReservation.HOLDER_BUCKET, StockReservation.STATE_RESERVED);
+            stuck -= settleFromOtherBuckets(bucketLines, confirm,
+                    confirm ? StockReservation.STATE_CONFIRMED : StockReservation.STATE_RELEASED);
+        }
+        return new Settlement(true, (int) open, (int) stuck);
+    }
+
+    /**
+     * Locks the open lines of up to {@code limit} orders reserved before
+     * {@code cutoff}. Orders whose lines are partly locked by another replica are
+     * left out, so each order is expired by exactly one sweeper.
+     *
+     * @return locked lines by orderId
+     */
+    public Map<Long, List<StockReservation>> claimExpired(Instant cutoff, int limit) {
+        List<Long> orderIds = List.copyOf(new LinkedHashSet<>(stockReservationRepository.findExpiredOrderIds(cutoff, limit)));
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, List<StockReservation>> claimed = stockReservationRepository.lockOpenLines(orderIds).stream()
+                .collect(Collectors.groupingBy(StockReservation::getOrderId, TreeMap::new, Collectors.toList()));
+
+        for (OpenLineCount count : stockReservationRepository.countOpenLines(claimed.keySet())) {
+            List<StockReservation> lines = claimed.get(count.getOrderId());
+            if (lines != null && lines.size() < count.getOpenLines()) {
+                claimed.remove(count.getOrderId());
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Releases claimed lines back to available stock and marks them EXPIRED,
+     * with set-based updates per holder type.
+     *
+     * @return how many lines could not be released (they are closed regardless)
+     */
+    public int expire(Map<Long, List<StockReservation>> claimed, String eventId) {
+        List<StockReservation> lines = claimed.values().stream().flatMap(List::stream).toList();
+
+        // a multi-table UPDATE changes each product row at most once, however many
+        // lines join to it; so every statement may hold only one line per counter row
+        for (List<Long> round : rounds(lines, StockReservation.HOLDER_ROW)) {
+            stockReservationRepository.releaseRowReservationsByIds(round, StockReservation.STATE_EXPIRED);
+        }
+        for (List<Long> round : rounds(lines, StockReservation.HOLDER_BUCKET)) {
+            stockReservationRepository.releaseBucketReservationsByIds(round, StockReservation.STATE_EXPIRED);
+        }
+
+        StockReservationEngine engine = stockReservationEngine.getIfAvailable();
+        if (engine != null) {
+            claimed.values().forEach(orderLines -> expireEngineLines(engine, orderLines, eventId));
+        }
+
+        List<Long> ids = lines.stream().map(StockReservation::getId).toList();
+        int stuck = (int) stockReservationRepository.countByIdInAndState(ids, StockReservation.STATE_RESERVED);
+        if (stuck > 0) {
+            List<StockReservation> bucketLines = stockReservationRepository.findByIdInAndHolderAndState(
+                    ids, StockReservation.HOLDER_BUCKET, StockReservation.STATE_RESERVED);
+            stuck -= settleFromOtherBuckets(bucketLines, false, StockReservation.STATE_EXPIRED);
+        }
+        if (stuck > 0) {
+            // counters no longer hold these quantities; close the lines anyway so
+            // the order is not expired (and announced) again on every sweep
+            stockReservationRepository.transitionReserved(ids, StockReservation.STATE_EXPIRED);
+        }
+        return stuck;
+    }
+
+    /**
+     * Settles open BUCKET lines whose own bucket fell short from whichever
+     * buckets of the product still hold the quantity.
+     *
+     * @return how many lines were settled this way
+     */
+    private int settleFromOtherBuckets(List<StockReservation> bucketLines, boolean confirm, String state) {
+        List<Long> settledIds = new ArrayList<>();
+        for (StockReservation line : bucketLines) {
+            boolean settled = confirm
+                    ? stockStripingService.confirm(line.getProductId(), line.getQuantity())
+                    : stockStripingService.release(line.getProductId(), line.getQuantity());
+            if (settled) {
+                settledIds.add(line.getId());
+            }
+        }
+
+        if (!settledIds.isEmpty()) {
+            stockReservationRepository.transitionReserved(settledIds, state);
+        }
+        return settledIds.size();
+    }
+
+    private static List<List<Long>> rounds(List<StockReservation> lines, String holder) {
+        Map<String, Integer> seen = new HashMap<>();
+        List<List<Long>> rounds = new ArrayList<>();
+
+        for (StockReservation line : lines) {
+            if (!holder.equals(line.getHolder())) {
+                continue;
+            }
+            int round = seen.merge(line.getProductId() + ":" + line.getBucketNo(), 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(line.getId());
+        }
+        return rounds;
+    }
+
+    private void expireEngineLines(StockReservationEngine engine, List<StockReservation> orderLines, String eventId) {
+        List<StockReservation> lines = orderLines.stream()
+                .filter(line -> StockReservation.HOLDER_ENGINE.equals(line.getHolder()))
+                .toList();
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        lines.forEach(line -> quantities.put(line.getProductId(), line.getQuantity()));
+        Map<Long, Boolean> settled = engine.settle(eventId, quantities, false);
+
+        List<Long> releasedIds = lines.stream()
+                .filter(line -> Boolean.TRUE.equals(settled.get(line.getProductId())))
+                .map(StockReservation::getId)
+                .toList();
+        if (!releasedIds.isEmpty()) {
+            stockReservationRepository.transitionReserved(releasedIds, StockReservation.STATE_EXPIRED);
+        }
+    }
+
+    private void settleEngineLines(Long orderId, String eventId, boolean confirm) {
+        StockReservationEngine engine = stockReservationEngine.getIfAvailable();
+        if (engine == null) {
+            return;
+        }
+
+        List<StockReservation> lines = stockReservationRepository.findByOrderIdAndHolderAndState(
+                orderId, StockReservation.HOLDER_ENGINE, StockReservation.STATE_RESERVED);
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        lines.forEach(line -> quantities.put(line.getProductId(), line.getQuantity()));
+        Map<Long, Boolean> settled = engine.settle(eventId, quantities, confirm);
+
+        List<Long> settledIds = lines.stream()
+                .filter(line -> Boolean.TRUE.equals(settled.get(line.getProductId())))
+                .map(StockReservation::getId)
+                .toList();
+        if (!settledIds.isEmpty()) {
+            stockReservationRepository.transitionReserved(settledIds,
+                    confirm ? StockReservation.STATE_CONFIRMED : StockReservation.STATE_RELEASED);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.product.service.stock;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Times out reservations of orders whose payment result never arrived.
+ *
+ * Every run expires orders reserved more than stock.reservation.ttl.minutes ago
+ * in batches of stock.reservation.sweep.batch.size orders, each batch in its own
+ * transaction. Replicas sweep concurrently without overlap: each batch locks
+ * its ledger lines with SKIP LOCKED (see StockReservationLedger#claimExpired).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stock.reservation.sweep.enabled", havingValue = "true", matchIfMissing = true)
+public class StockReservationSweeper {
+
+    private final StockSagaService stockSagaService;
+    private final Duration ttl;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Counter expiredCounter;
+    private final Timer sweepTimer;
+
+    private static final String METRIC_EXPIRED = "stock.reservations.expired";
+    private static final String METRIC_SWEEP_DURATION = "stock.reservations.sweep.duration";
+
+    public StockReservationSweeper(StockSagaService stockSagaService,
+            MeterRegistry meterRegistry,
+            @Value("${stock.reservation.ttl.minutes:30}") long ttlMinutes,
+            @Value("${stock.reservation.sweep.batch.size:200}") int batchSize,
+            @Value("${stock.reservation.sweep.max.batches:50}") int maxBatches) {
+        this.stockSagaService = stockSagaService;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.expiredCounter = Counter.builder(METRIC_EXPIRED)
+                .description("Orders whose stock reservation timed out")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder(METRIC_SWEEP_DURATION)
+                .description("Duration of one reservation expiry sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reservation.sweep.delay.ms:60000}", initialDelayString = "${stock.reservation.sweep.initial.delay.ms:30000}")
+    public void sweepExpiredReservations() {
+        sweepTimer.record(this::sweep);
+    }
+
+    private void sweep() {
+        Instant cutoff = Instant.now().minus(ttl);
+        int expired = 0;
+
+        try {
+            for (int batch = 0; batch < maxBatches && !Thread.currentThread().isInterrupted(); batch++) {
+                int count = stockSagaService.expireReservations(cutoff, batchSize);
+                expired += count;
+                expiredCounter.increment(count);
+
+                // nothing claimable left, or other replicas hold the rest
+                if (count == 0) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("[Saga] Reservation expiry sweep failed. Error: {}", e.getMessage(), e);
+        }
+
+        if (expired > 0) {
+            log.info("[Saga] Expired reservations of {} orders older than {}.", expired, cutoff);
+        }
+    }
+}
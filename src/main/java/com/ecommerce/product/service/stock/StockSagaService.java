@@ -1,10 +1,28 @@
 package com.ecommerce.product.service.stock;
 
+import java.time.Instant;
+import java.util.List;
+
 import com.ecommerce.product.model.db.entity.OutboxEvent;
 
 public interface StockSagaService {
 
     void processOrderCreated(OutboxEvent incomingEvent);
 
+    /**
+     * Processes many ORDER_CREATED events in one transaction, still producing one
+     * STOCK_RESERVED or STOCK_RESERVE_FAILED event per order.
+     */
+    void processOrderCreatedBatch(List<OutboxEvent> incomingEvents);
+
     void processPaymentResult(OutboxEvent incomingEvent);
+
+    /**
+     * Releases the reservations of up to {@code limit} orders reserved before
+     * {@code cutoff} and still unpaid, emitting one STOCK_RESERVATION_EXPIRED
+     * event per order.
+     *
+     * @return number of orders expired
+     */
+    int expireReservations(Instant cutoff, int limit);
 }
@@ -1,13 +1,22 @@
 package com.ecommerce.product.service.stock;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ecommerce.product.kafka.dto.EventMetadata;
@@ -15,21 +24,51 @@ import com.ecommerce.product.kafka.dto.OrderItemDto;
 import com.ecommerce.product.kafka.dto.SagaEventPayload;
 import com.ecommerce.product.model.db.entity.OutboxEvent;
 import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.model.db.entity.StockReservation;
+import com.ecommerce.product.model.event.OutboxEventsCreatedEvent;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
 import com.ecommerce.product.repository.db.OutboxEventRepository;
 import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.stock.StockReservationEngine.Outcome;
+import com.ecommerce.product.service.stock.StockReservationEngine.Reservation;
+import com.ecommerce.product.service.stock.StockReservationLedger.Settlement;
 import com.ecommerce.product.util.JsonUtil;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class StockSagaServiceImpl implements StockSagaService {
 
     private final ProductRepository productRepository;
     private final OutboxEventRepository outboxEventRepository;
+    private final ProcessedEventRegistry processedEventRegistry;
+    private final StockStripingService stockStripingService;
+    private final StockReservationLedger stockReservationLedger;
+    private final ObjectProvider<StockReservationEngine> stockReservationEngine;
+    private final ApplicationEventPublisher eventPublisher;
     private final JsonUtil jsonUtil;
+    private final boolean legacyFallback;
+
+    public StockSagaServiceImpl(ProductRepository productRepository,
+            OutboxEventRepository outboxEventRepository,
+            ProcessedEventRegistry processedEventRegistry,
+            StockStripingService stockStripingService,
+            StockReservationLedger stockReservationLedger,
+            ObjectProvider<StockReservationEngine> stockReservationEngine,
+            ApplicationEventPublisher eventPublisher,
+            JsonUtil jsonUtil,
+            @Value("${saga.ledger.legacy-fallback:false}") boolean legacyFallback) {
+        this.productRepository = productRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.processedEventRegistry = processedEventRegistry;
+        this.stockStripingService = stockStripingService;
+        this.stockReservationLedger = stockReservationLedger;
+        this.stockReservationEngine = stockReservationEngine;
+        this.eventPublisher = eventPublisher;
+        this.jsonUtil = jsonUtil;
+        this.legacyFallback = legacyFallback;
+    }
 
     private static final String TOPIC_STOCKS = "stocks";
     private static final String STATUS_PENDING = "PENDING";
@@ -37,54 +76,336 @@ public class StockSagaServiceImpl implements StockSagaService {
     private static final String EVENT_TYPE_STOCK_RESERVE_FAILED = "STOCK_RESERVE_FAILED";
     private static final String EVENT_TYPE_PAYMENT_SUCCEEDED = "PAYMENT_SUCCEEDED";
     private static final String EVENT_TYPE_PAYMENT_FAILED = "PAYMENT_FAILED";
+    private static final String EVENT_TYPE_STOCK_RESERVATION_EXPIRED = "STOCK_RESERVATION_EXPIRED";
 
     @Override
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void processOrderCreated(OutboxEvent incomingEvent) {
+        if (!processedEventRegistry.markProcessed(incomingEvent.getEventId(), incomingEvent.getEventType())) {
+            log.info("[Saga] Skipping duplicate event: {}", incomingEvent.getEventId());
+            return;
+        }
+
         SagaEventPayload payload = jsonUtil.fromJson(incomingEvent.getPayload(), SagaEventPayload.class);
         EventMetadata metadata = jsonUtil.fromJson(incomingEvent.getMetadata(), EventMetadata.class);
 
-        List<Long> productIds = payload.items().stream()
+        // sum duplicated lines and reserve in ascending productId order, so that
+        // concurrent orders always lock the same rows in the same order
+        Map<Long, Integer> quantities = payload.items().stream()
+                .collect(Collectors.toMap(OrderItemDto::productId, OrderItemDto::quantity, Integer::sum, TreeMap::new));
+
+        StockReservationEngine engine = stockReservationEngine.getIfAvailable();
+        List<StockAllocation> allocations = engine != null
+                ? completeReservation(engine, engine.reserve(incomingEvent.getEventId(), quantities), quantities,
+                        payload.orderId())
+                : reserveAll(quantities);
+
+        if (allocations == null) {
+            createOutboxEvent(payload, metadata, incomingEvent.getEventId(), EVENT_TYPE_STOCK_RESERVE_FAILED);
+            return;
+        }
+
+        stockReservationLedger.record(Map.of(payload.orderId(), allocations));
+        publishStockChanged(quantities.keySet());
+
+        log.info("[Saga] Stock reserved for OrderId: {} ({} products).", payload.orderId(), quantities.size());
+
+        createOutboxEvent(payload, metadata, incomingEvent.getEventId(), EVENT_TYPE_STOCK_RESERVED);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void processOrderCreatedBatch(List<OutboxEvent> incomingEvents) {
+        List<PendingOrder> orders = new ArrayList<>();
+
+        for (OutboxEvent incomingEvent : incomingEvents) {
+            if (!processedEventRegistry.markProcessed(incomingEvent.getEventId(), incomingEvent.getEventType())) {
+                log.info("[Saga] Skipping duplicate event: {}", incomingEvent.getEventId());
+                continue;
+            }
+
+            try {
+                SagaEventPayload payload = jsonUtil.fromJson(incomingEvent.getPayload(), SagaEventPayload.class);
+                EventMetadata metadata = jsonUtil.fromJson(incomingEvent.getMetadata(), EventMetadata.class);
+                orders.add(new PendingOrder(incomingEvent.getEventId(), payload, metadata));
+            } catch (Exception e) {
+                // a malformed record must not fail the orders batched with it
+                log.error("[Saga] Skipping unreadable event: {}. Error: {}", incomingEvent.getEventId(), e.getMessage());
+            }
+        }
+
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        StockReservationEngine engine = stockReservationEngine.getIfAvailable();
+        List<List<StockAllocation>> reserved = engine != null
+                ? reserveWithEngine(engine, orders)
+                : reserveAgainstSnapshot(orders);
+
+        List<OutboxEvent> outgoingEvents = new ArrayList<>(orders.size());
+        Map<Long, List<StockAllocation>> allocationsByOrder = new LinkedHashMap<>();
+        int reservedCount = 0;
+
+        for (int i = 0; i < orders.size(); i++) {
+            PendingOrder order = orders.get(i);
+
+            String newEventType;
+            if (reserved.get(i) != null) {
+                allocationsByOrder.put(order.payload().orderId(), reserved.get(i));
+                newEventType = EVENT_TYPE_STOCK_RESERVED;
+                reservedCount++;
+            } else {
+                log.warn("[Saga] Stock check failed for OrderId: {}. Product missing or insufficient stock.",
+                        order.payload().orderId());
+                newEventType = EVENT_TYPE_STOCK_RESERVE_FAILED;
+            }
+
+            outgoingEvents.add(buildOutboxEvent(order.payload(), order.metadata(), order.eventId(), newEventType));
+        }
+
+        stockReservationLedger.record(allocationsByOrder);
+        publishStockChanged(allocationsByOrder.values().stream()
+                .flatMap(List::stream)
+                .map(StockAllocation::productId)
+                .collect(Collectors.toSet()));
+        outboxEventRepository.insertAll(outgoingEvents);
+        eventPublisher.publishEvent(new OutboxEventsCreatedEvent(outgoingEvents.size()));
+
+        log.info("[Saga] Processed batch of {} orders: {} reserved, {} failed.",
+                orders.size(), reservedCount, orders.size() - reservedCount);
+    }
+
+    /**
+     * @return per order its allocations, or null if it could not be reserved.
+     */
+    private List<List<StockAllocation>> reserveAgainstSnapshot(List<PendingOrder> orders) {
+        Set<Long> productIds = orders.stream()
+                .flatMap(order -> order.payload().items().stream())
                 .map(OrderItemDto::productId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        // reservations are decided against this locked snapshot and flushed as
+        // batched UPDATEs on commit. Striped products are not in it, they go
+        // through the guarded bucket path on buckets locked up front.
+        Map<Long, Product> productMap = lockInProductOrder(productIds);
+
+        List<List<StockAllocation>> reserved = new ArrayList<>(orders.size());
+
+        for (PendingOrder order : orders) {
+            Map<Long, Integer> quantities = order.quantities();
+
+            Map<Long, Integer> snapshotQuantities = new TreeMap<>(quantities);
+            snapshotQuantities.keySet().retainAll(productMap.keySet());
+            Map<Long, Integer> otherQuantities = new TreeMap<>(quantities);
+            otherQuantities.keySet().removeAll(productMap.keySet());
+
+            boolean reservable = snapshotQuantities.entrySet().stream()
+                    .allMatch(entry -> productMap.get(entry.getKey()).getStockAvailable() >= entry.getValue());
+
+            List<StockAllocation> allocations = null;
+            if (reservable) {
+                allocations = otherQuantities.isEmpty() ? new ArrayList<>() : reserveAll(otherQuantities);
+            }
+
+            if (allocations != null) {
+                for (Map.Entry<Long, Integer> entry : snapshotQuantities.entrySet()) {
+                    Product product = productMap.get(entry.getKey());
+                    product.setStockAvailable(product.getStockAvailable() - entry.getValue());
+                    product.setStockReserved(product.getStockReserved() + entry.getValue());
+                    allocations.add(StockAllocation.row(entry.getKey(), entry.getValue()));
+                }
+            }
+            reserved.add(allocations);
+        }
+
+        return reserved;
+    }
+
+    /**
+     * Takes every lock the batch needs before anything is reserved, in one
+     * ascending productId sequence like the single-order and payment paths:
+     * runs of non-striped products are row-locked with one read each, and a
+     * striped product's buckets are locked in their place in between.
+     *
+     * @return the locked non-striped products by id.
+     */
+    private Map<Long, Product> lockInProductOrder(Set<Long> productIds) {
+        Set<Long> striped = new TreeSet<>(productRepository.findStripedIdsByIdIn(productIds));
+        Map<Long, Product> locked = new LinkedHashMap<>();
+        List<Long> run = new ArrayList<>();
+
+        for (Long productId : productIds) {
+            if (!striped.contains(productId)) {
+                run.add(productId);
+                continue;
+            }
+            lockRows(run, locked);
+            stockStripingService.lockBuckets(productId);
+        }
+        lockRows(run, locked);
+
+        // a product striped since the read above is left out of the snapshot and
+        // reserved through the guarded path; only that race can lock out of order
+        return locked;
+    }
+
+    private void lockRows(List<Long> run, Map<Long, Product> locked) {
+        if (run.isEmpty()) {
+            return;
+        }
+        productRepository.findAllByIdInAndStockStripedFalseOrderByIdAsc(run)
+                .forEach(product -> locked.put(product.getId(), product));
+        run.clear();
+    }
+
+    private List<List<StockAllocation>> reserveWithEngine(StockReservationEngine engine, List<PendingOrder> orders) {
+        // submit the whole batch before waiting, so it shares journal syncs
+        List<CompletableFuture<Reservation>> reservations = orders.stream()
+                .map(order -> engine.reserveAsync(order.eventId(), order.quantities()))
                 .toList();
 
-        Map<Long, Product> productMap = productRepository.findAllById(productIds).stream()
-                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<List<StockAllocation>> reserved = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            PendingOrder order = orders.get(i);
+            reserved.add(completeReservation(engine, reservations.get(i).join(), order.quantities(),
+                    order.payload().orderId()));
+        }
+        return reserved;
+    }
 
-        for (OrderItemDto item : payload.items()) {
-            Product product = productMap.get(item.productId());
+    /**
+     * Reserves the lines the engine left to us (striped products) with guarded
+     * updates, and takes the engine's part back if that fails.
+     */
+    private List<StockAllocation> completeReservation(StockReservationEngine engine, Reservation reservation,
+            Map<Long, Integer> quantities, Long orderId) {
+        if (reservation.outcome() != Outcome.RESERVED) {
+            log.warn("[Saga] Stock check failed for OrderId: {}. Product missing or insufficient stock.", orderId);
+            return null;
+        }
 
-            if (product == null) {
-                log.warn("[Saga] Stock check failed. ProductId: {} not found.", item.productId());
-                createOutboxEvent(payload, metadata, incomingEvent.getEventId(), EVENT_TYPE_STOCK_RESERVE_FAILED);
-                return;
+        List<StockAllocation> allocations = reservation.unowned().isEmpty()
+                ? new ArrayList<>()
+                : reserveAll(reservation.unowned());
+        if (allocations == null) {
+            engine.cancel(reservation);
+            return null;
+        }
+
+        quantities.forEach((productId, quantity) -> {
+            if (!reservation.unowned().containsKey(productId)) {
+                allocations.add(StockAllocation.engine(productId, quantity));
             }
+        });
+        return allocations;
+    }
 
-            if (product.getStockAvailable() < item.quantity()) {
-                log.warn("[Saga] Stock check failed. Insufficient stock for ProductId: {}. Required: {}, Available: {}",
-                        item.productId(), item.quantity(), product.getStockAvailable());
-                createOutboxEvent(payload, metadata, incomingEvent.getEventId(), EVENT_TYPE_STOCK_RESERVE_FAILED);
-                return;
+    /**
+     * Reserves every entry (in the map's order) with guarded updates, or nothing:
+     * on the first miss the earlier reservations are undone and null is returned.
+     */
+    private List<StockAllocation> reserveAll(Map<Long, Integer> quantities) {
+        List<StockAllocation> reserved = new ArrayList<>(quantities.size());
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+
+            List<StockAllocation> allocations = reserveOne(productId, quantity);
+            if (allocations == null) {
+                if (productRepository.existsById(productId)) {
+                    log.warn("[Saga] Stock check failed. Insufficient stock for ProductId: {}. Required: {}",
+                            productId, quantity);
+                } else {
+                    log.warn("[Saga] Stock check failed. ProductId: {} not found.", productId);
+                }
+
+                // undo what this order already reserved, the rows are still locked by us
+                reserved.forEach(this::unreserve);
+                return null;
             }
+
+            reserved.addAll(allocations);
         }
 
-        log.info("[Saga] Stock check passed for OrderId: {}. Reserving stock...", payload.orderId());
+        return reserved;
+    }
 
-        for (OrderItemDto item : payload.items()) {
-            Product product = productMap.get(item.productId());
+    // the striping hint only picks which side to try first; the other side is
+    // the fallback, so a stale hint costs one extra UPDATE and never a wrong answer
+    private List<StockAllocation> reserveOne(Long productId, int quantity) {
+        if (stockStripingService.isStriped(productId)) {
+            List<StockAllocation> allocations = reserveInBuckets(productId, quantity);
+            if (allocations != null) {
+                return allocations;
+            }
+            return productRepository.reserveStock(productId, quantity) > 0
+                    ? List.of(StockAllocation.row(productId, quantity))
+                    : null;
+        }
 
-            product.setStockAvailable(product.getStockAvailable() - item.quantity());
-            product.setStockReserved(product.getStockReserved() + item.quantity());
+        if (productRepository.reserveStock(productId, quantity) > 0) {
+            return List.of(StockAllocation.row(productId, quantity));
         }
+        return reserveInBuckets(productId, quantity);
+    }
 
-        productRepository.saveAll(productMap.values());
+    // one allocation per bucket the line was split over
+    private List<StockAllocation> reserveInBuckets(Long productId, int quantity) {
+        Map<Integer, Integer> parts = stockStripingService.reserve(productId, quantity);
+        if (parts == null) {
+            return null;
+        }
 
-        createOutboxEvent(payload, metadata, incomingEvent.getEventId(), EVENT_TYPE_STOCK_RESERVED);
+        List<StockAllocation> allocations = new ArrayList<>(parts.size());
+        parts.forEach((bucketNo, part) -> allocations.add(StockAllocation.bucket(productId, bucketNo, part)));
+        return allocations;
+    }
+
+    private void unreserve(StockAllocation allocation) {
+        if (allocation.bucketNo() == null) {
+            productRepository.unreserveStock(allocation.productId(), allocation.quantity());
+        } else {
+            stockStripingService.unreserve(allocation.productId(), allocation.bucketNo(), allocation.quantity());
+        }
+    }
+
+    private boolean settleReserved(Long productId, int quantity, boolean succeeded) {
+        boolean striped = stockStripingService.isStriped(productId);
+
+        if (striped && settleInBuckets(productId, quantity, succeeded)) {
+            return true;
+        }
+
+        int updated = succeeded
+                ? productRepository.confirmReservedStock(productId, quantity)
+                : productRepository.releaseReservedStock(productId, quantity);
+        if (updated > 0) {
+            return true;
+        }
+
+        return !striped && settleInBuckets(productId, quantity, succeeded);
+    }
+
+    private boolean settleInBuckets(Long productId, int quantity, boolean succeeded) {
+        return succeeded
+                ? stockStripingService.confirm(productId, quantity)
+                : stockStripingService.release(productId, quantity);
     }
 
     private void createOutboxEvent(SagaEventPayload payload, EventMetadata incomingMetadata,
             String causationEventId, String newEventType) {
 
+        outboxEventRepository.save(buildOutboxEvent(payload, incomingMetadata, causationEventId, newEventType));
+        eventPublisher.publishEvent(new OutboxEventsCreatedEvent(1));
+
+        log.info("[Saga] Created Outbox event: {} for OrderId: {}", newEventType, payload.orderId());
+    }
+
+    private OutboxEvent buildOutboxEvent(SagaEventPayload payload, EventMetadata incomingMetadata,
+            String causationEventId, String newEventType) {
+
         EventMetadata outgoingMetadata = EventMetadata.builder()
                 .traceId(incomingMetadata.traceId())
                 .causationId(causationEventId)
@@ -92,7 +413,7 @@ public class StockSagaServiceImpl implements StockSagaService {
                 .timestamp(Instant.now().toEpochMilli())
                 .build();
 
-        OutboxEvent outgoingEvent = OutboxEvent.builder()
+        return OutboxEvent.builder()
                 .eventId(UUID.randomUUID().toString())
                 .aggregateType(TOPIC_STOCKS)
                 .aggregateId(payload.orderId().toString())
@@ -101,62 +422,142 @@ public class StockSagaServiceImpl implements StockSagaService {
                 .metadata(jsonUtil.toJson(outgoingMetadata))
                 .status(STATUS_PENDING)
                 .build();
-
-        outboxEventRepository.save(outgoingEvent);
-
-        log.info("[Saga] Created Outbox event: {} for OrderId: {}", newEventType, payload.orderId());
     }
 
     @Override
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void processPaymentResult(OutboxEvent incomingEvent) {
-        SagaEventPayload payload = jsonUtil.fromJson(incomingEvent.getPayload(), SagaEventPayload.class);
         String eventType = incomingEvent.getEventType();
 
-        List<Long> productIds = payload.items().stream()
-                .map(OrderItemDto::productId)
-                .toList();
-
-        Map<Long, Product> productMap = productRepository.findAllById(productIds).stream()
-                .collect(Collectors.toMap(Product::getId, Function.identity()));
-
-        if (EVENT_TYPE_PAYMENT_SUCCEEDED.equals(eventType)) {
-            log.info("[Saga] Payment Succeeded for OrderId: {}. Confirming stock reservation...", payload.orderId());
-
-            for (OrderItemDto item : payload.items()) {
-                Product product = productMap.get(item.productId());
-                if (product != null) {
-                    int newReservedStock = product.getStockReserved() - item.quantity();
+        if (!EVENT_TYPE_PAYMENT_SUCCEEDED.equals(eventType) && !EVENT_TYPE_PAYMENT_FAILED.equals(eventType)) {
+            log.warn("[Saga] Ignoring unknown event type: {}", eventType);
+            return;
+        }
 
-                    if (newReservedStock < 0) {
-                        log.warn("[Saga] Stock inconsistency detected for ProductId: {}. Reserved stock is negative.",
-                                product.getId());
-                    }
+        if (!processedEventRegistry.markProcessed(incomingEvent.getEventId(), eventType)) {
+            log.info("[Saga] Skipping duplicate event: {}", incomingEvent.getEventId());
+            return;
+        }
 
-                    product.setStockReserved(Math.max(0, newReservedStock));
-                }
-            }
+        SagaEventPayload payload = jsonUtil.fromJson(incomingEvent.getPayload(), SagaEventPayload.class);
+        boolean succeeded = EVENT_TYPE_PAYMENT_SUCCEEDED.equals(eventType);
 
-        } else if (EVENT_TYPE_PAYMENT_FAILED.equals(eventType)) {
+        if (succeeded) {
+            log.info("[Saga] Payment Succeeded for OrderId: {}. Confirming stock reservation...", payload.orderId());
+        } else {
             log.warn("[Saga] Payment FAILED for OrderId: {}. Compensating (releasing) stock...", payload.orderId());
+        }
 
-            for (OrderItemDto item : payload.items()) {
-                Product product = productMap.get(item.productId());
-                if (product != null) {
-                    int newReservedStock = product.getStockReserved() - item.quantity();
-                    int newAvailableStock = product.getStockAvailable() + item.quantity();
+        Settlement settlement = stockReservationLedger.settle(payload.orderId(), incomingEvent.getEventId(), succeeded);
 
-                    product.setStockReserved(Math.max(0, newReservedStock));
-                    product.setStockAvailable(newAvailableStock);
-                }
+        if (!settlement.known()) {
+            if (!legacyFallback) {
+                // the reservation is not committed yet, or it failed: nothing of this order is held
+                log.warn("[Saga] No stock reservation recorded for OrderId: {}. {} ignored.",
+                        payload.orderId(), eventType);
+                return;
             }
-        } else {
-            log.warn("[Saga] Ignoring unknown event type: {}", eventType);
+            // reserved before the ledger existed: fall back to the payload's items
+            settleFromPayload(payload, incomingEvent.getEventId(), succeeded);
+        } else if (settlement.open() == 0) {
+            log.info("[Saga] Nothing left to settle for OrderId: {}. Repeated or late {} ignored.",
+                    payload.orderId(), eventType);
             return;
+        } else if (settlement.stuck() > 0) {
+            log.warn("[Saga] Stock inconsistency detected for OrderId: {}. {} of {} reserved lines could not be settled.",
+                    payload.orderId(), settlement.stuck(), settlement.open());
         }
 
-        productRepository.saveAll(productMap.values());
+        if (!succeeded) {
+            // confirming only moves reserved stock, which the public views do not show
+            publishStockChanged(payload.items().stream().map(OrderItemDto::productId).collect(Collectors.toSet()));
+        }
 
         log.info("[Saga] Successfully processed event: {} for OrderId: {}.", eventType, payload.orderId());
     }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public int expireReservations(Instant cutoff, int limit) {
+        Map<Long, List<StockReservation>> claimed = stockReservationLedger.claimExpired(cutoff, limit);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        // gives the engine's changes an eventId that commits with this sweep
+        String sweepId = UUID.randomUUID().toString();
+        processedEventRegistry.markProcessed(sweepId, EVENT_TYPE_STOCK_RESERVATION_EXPIRED);
+
+        int stuck = stockReservationLedger.expire(claimed, sweepId);
+        if (stuck > 0) {
+            log.warn("[Saga] Stock inconsistency detected while expiring reservations. {} lines could not be released.",
+                    stuck);
+        }
+
+        EventMetadata metadata = EventMetadata.builder()
+                .traceId(UUID.randomUUID().toString())
+                .causationId(sweepId)
+                .timestamp(Instant.now().toEpochMilli())
+                .build();
+
+        List<OutboxEvent> outgoingEvents = new ArrayList<>(claimed.size());
+        claimed.forEach((orderId, lines) -> {
+            // one item per product, also when its line was split over buckets
+            List<OrderItemDto> items = lines.stream()
+                    .collect(Collectors.toMap(StockReservation::getProductId, StockReservation::getQuantity,
+                            Integer::sum, TreeMap::new))
+                    .entrySet().stream()
+                    .map(entry -> new OrderItemDto(entry.getKey(), entry.getValue()))
+                    .toList();
+            // the amount is not ours to know; the order service keys on orderId
+            SagaEventPayload payload = new SagaEventPayload(orderId, null, items);
+            outgoingEvents.add(buildOutboxEvent(payload, metadata, sweepId, EVENT_TYPE_STOCK_RESERVATION_EXPIRED));
+        });
+
+        outboxEventRepository.insertAll(outgoingEvents);
+        eventPublisher.publishEvent(new OutboxEventsCreatedEvent(outgoingEvents.size()));
+        publishStockChanged(claimed.values().stream()
+                .flatMap(List::stream)
+                .map(StockReservation::getProductId)
+                .collect(Collectors.toSet()));
+
+        log.info("[Saga] Expired stock reservations of {} unpaid orders reserved before {}.", claimed.size(), cutoff);
+        return claimed.size();
+    }
+
+    private void publishStockChanged(Set<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductsChangedEvent.stock(productIds));
+        }
+    }
+
+    private void settleFromPayload(SagaEventPayload payload, String eventId, boolean succeeded) {
+        // same ascending productId lock order as the reservation paths
+        Map<Long, Integer> quantities = payload.items().stream()
+                .collect(Collectors.toMap(OrderItemDto::productId, OrderItemDto::quantity, Integer::sum, TreeMap::new));
+
+        StockReservationEngine engine = stockReservationEngine.getIfAvailable();
+        Map<Long, Boolean> settledByEngine = engine != null
+                ? engine.settle(eventId, quantities, succeeded)
+                : Map.of();
+
+        quantities.forEach((productId, quantity) -> {
+            boolean settled = settledByEngine.containsKey(productId)
+                    ? settledByEngine.get(productId)
+                    : settleReserved(productId, quantity, succeeded);
+
+            if (!settled) {
+                log.warn("[Saga] Stock inconsistency detected for ProductId: {}. Less than {} reserved (or product missing).",
+                        productId, quantity);
+            }
+        });
+    }
+
+    private record PendingOrder(String eventId, SagaEventPayload payload, EventMetadata metadata) {
+
+        Map<Long, Integer> quantities() {
+            return payload.items().stream()
+                    .collect(Collectors.toMap(OrderItemDto::productId, OrderItemDto::quantity, Integer::sum, TreeMap::new));
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package com.ecommerce.product.service.stock;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.ecommerce.product.model.db.entity.Product;
+
+/**
+ * Striped ("sharded") stock for hot products: available stock is split over N
+ * product_stock_buckets rows, so concurrent reservations lock different rows.
+ *
+ * The products row of a striped product keeps its columns; anything left there
+ * (e.g. reservations made before striping was enabled) is still honoured, and
+ * totals are the row plus the buckets.
+ */
+public interface StockStripingService {
+
+    /**
+     * Local, periodically refreshed hint. Callers must still fall back to the
+     * products row, since another replica may have changed the flag.
+     */
+    boolean isStriped(Long productId);
+
+    /**
+     * Reserves {@code quantity} from a single bucket if one has enough, starting
+     * at a random one. Otherwise the line is split over several buckets, taken
+     * in bucket order with all of them locked.
+     *
+     * @return how much was taken from which bucket (bucketNo to quantity), or
+     *         null if all buckets together do not have enough stock (or the
+     *         product is not striped).
+     */
+    Map<Integer, Integer> reserve(Long productId, int quantity);
+
+    void unreserve(Long productId, int bucketNo, int quantity);
+
+    /**
+     * Row-locks all buckets of the product in bucket order, e.g. before a batch
+     * reserves from them.
+     */
+    void lockBuckets(Long productId);
+
+    /**
+     * Removes {@code quantity} from the reserved stock of whichever buckets hold
+     * it, for reservations whose buckets are not known (see
+     * StockReservationLedger for the exact per-bucket path). All or nothing.
+     */
+    boolean confirm(Long productId, int quantity);
+
+    /**
+     * Moves {@code quantity} from reserved back to available in whichever
+     * buckets hold it, like {@link #confirm}.
+     */
+    boolean release(Long productId, int quantity);
+
+    /**
+     * (Re)stripes the locked product's available stock over {@code buckets} rows.
+     */
+    void enable(Product product, int buckets);
+
+    /**
+     * Folds all buckets back into the locked products row.
+     */
+    void disable(Product product);
+
+    /**
+     * Evens out available stock across the product's buckets.
+     */
+    void rebalance(Product product);
+
+    /**
+     * Sets the total available stock of a striped product, spread evenly.
+     */
+    void setAvailable(Product product, int stockAvailable);
+
+    /**
+     * Fills the bucket totals of the striped products in {@code products} with one
+     * query. Non-striped products are left untouched.
+     */
+    void loadBucketTotals(Collection<Product> products);
+}
@@ -0,0 +1,287 @@
+package com.ecommerce.product.service.stock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.model.db.entity.ProductStockBucket;
+import com.ecommerce.product.repository.db.ProductStockBucketRepository;
+import com.ecommerce.product.repository.db.ProductStockBucketRepository.BucketCount;
+import com.ecommerce.product.repository.db.ProductStockBucketRepository.BucketStock;
+import com.ecommerce.product.repository.db.ProductStockBucketRepository.BucketTotals;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockStripingServiceImpl implements StockStripingService {
+
+    private final ProductStockBucketRepository productStockBucketRepository;
+
+    // productId -> bucket count of striped products; replaced wholesale, never mutated
+    private volatile Map<Long, Integer> bucketCounts = Map.of();
+
+    @Scheduled(fixedDelayString = "${stock.striping.refresh.ms:5000}")
+    @Transactional(readOnly = true)
+    public void refreshBucketCounts() {
+        bucketCounts = productStockBucketRepository.findBucketCounts().stream()
+                .collect(Collectors.toUnmodifiableMap(BucketCount::getProductId, c -> c.getBuckets().intValue()));
+    }
+
+    @Override
+    public boolean isStriped(Long productId) {
+        return bucketCounts.containsKey(productId);
+    }
+
+    @Override
+    public Map<Integer, Integer> reserve(Long productId, int quantity) {
+        Integer bucketNo = firstMatchingBucket(productId,
+                no -> productStockBucketRepository.reserveStock(productId, no, quantity));
+        if (bucketNo != null) {
+            return Map.of(bucketNo, quantity);
+        }
+
+        Map<Integer, Integer> parts = splitAcrossBuckets(productId, quantity, BucketStock::getStockAvailable);
+        if (parts != null) {
+            parts.forEach((no, part) -> productStockBucketRepository.reserveStock(productId, no, part));
+        }
+        return parts;
+    }
+
+    @Override
+    public void unreserve(Long productId, int bucketNo, int quantity) {
+        productStockBucketRepository.unreserveStock(productId, bucketNo, quantity);
+    }
+
+    @Override
+    public void lockBuckets(Long productId) {
+        productStockBucketRepository.lockStock(productId);
+    }
+
+    @Override
+    public boolean confirm(Long productId, int quantity) {
+        if (firstMatchingBucket(productId,
+                no -> productStockBucketRepository.confirmReservedStock(productId, no, quantity)) != null) {
+            return true;
+        }
+
+        Map<Integer, Integer> parts = splitAcrossBuckets(productId, quantity, BucketStock::getStockReserved);
+        if (parts == null) {
+            return false;
+        }
+        parts.forEach((no, part) -> productStockBucketRepository.confirmReservedStock(productId, no, part));
+        return true;
+    }
+
+    @Override
+    public boolean release(Long productId, int quantity) {
+        if (firstMatchingBucket(productId,
+                no -> productStockBucketRepository.releaseReservedStock(productId, no, quantity)) != null) {
+            return true;
+        }
+
+        Map<Integer, Integer> parts = splitAcrossBuckets(productId, quantity, BucketStock::getStockReserved);
+        if (parts == null) {
+            return false;
+        }
+        parts.forEach((no, part) -> productStockBucketRepository.releaseReservedStock(productId, no, part));
+        return true;
+    }
+
+    @Override
+    public void enable(Product product, int buckets) {
+        List<ProductStockBucket> existing = productStockBucketRepository.findByProductIdOrderByBucketNoAsc(product.getId());
+        int total = product.getStockAvailable() + sumAvailable(existing);
+
+        redistribute(product, existing, buckets, total);
+        product.setStockStriped(true);
+
+        log.info("[Stock] Striped stock of productId: {} over {} buckets (available: {}).",
+                product.getId(), buckets, total);
+        afterChange(product, buckets);
+    }
+
+    @Override
+    public void disable(Product product) {
+        List<ProductStockBucket> existing = productStockBucketRepository.findByProductIdOrderByBucketNoAsc(product.getId());
+
+        for (ProductStockBucket bucket : existing) {
+            product.setStockAvailable(product.getStockAvailable() + bucket.getStockAvailable());
+            product.setStockReserved(product.getStockReserved() + bucket.getStockReserved());
+        }
+        productStockBucketRepository.deleteAllInBatch(existing);
+        product.setStockStriped(false);
+
+        log.info("[Stock] Folded {} stock buckets back into productId: {}.", existing.size(), product.getId());
+        afterChange(product, 0);
+    }
+
+    @Override
+    public void rebalance(Product product) {
+        List<ProductStockBucket> existing = productStockBucketRepository.findByProductIdOrderByBucketNoAsc(product.getId());
+        if (existing.isEmpty()) {
+            return;
+        }
+
+        int total = product.getStockAvailable() + sumAvailable(existing);
+        redistribute(product, existing, existing.size(), total);
+
+        log.info("[Stock] Rebalanced {} stock buckets of productId: {} (available: {}).",
+                existing.size(), product.getId(), total);
+        afterChange(product, existing.size());
+    }
+
+    @Override
+    public void setAvailable(Product product, int stockAvailable) {
+        List<ProductStockBucket> existing = productStockBucketRepository.findByProductIdOrderByBucketNoAsc(product.getId());
+        if (existing.isEmpty()) {
+            product.setStockAvailable(stockAvailable);
+            return;
+        }
+
+        redistribute(product, existing, existing.size(), stockAvailable);
+        afterChange(product, existing.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void loadBucketTotals(Collection<Product> products) {
+        Map<Long, Product> striped = products.stream()
+                .filter(product -> Boolean.TRUE.equals(product.getStockStriped()))
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (a, b) -> a));
+
+        if (striped.isEmpty()) {
+            return;
+        }
+
+        for (BucketTotals totals : productStockBucketRepository.sumByProductIds(striped.keySet())) {
+            Product product = striped.get(totals.getProductId());
+            product.setBucketStockAvailable(totals.getStockAvailable().intValue());
+            product.setBucketStockReserved(totals.getStockReserved().intValue());
+        }
+    }
+
+    /**
+     * Tries the product's buckets starting at a random one, so concurrent callers
+     * spread over different rows.
+     */
+    private Integer firstMatchingBucket(Long productId, Function<Integer, Integer> guardedUpdate) {
+        Integer buckets = bucketCounts.get(productId);
+        if (buckets == null) {
+            // hint may be stale, another replica could have striped it
+            buckets = (int) productStockBucketRepository.countByProductId(productId);
+        }
+        if (buckets == 0) {
+            return null;
+        }
+
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        for (int i = 0; i < buckets; i++) {
+            int bucketNo = (start + i) % buckets;
+            if (guardedUpdate.apply(bucketNo) > 0) {
+                return bucketNo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Locks all buckets of the product in bucket order and takes {@code quantity}
+     * from them, lowest bucket first, as far as {@code counter} allows. The
+     * caller applies the parts with guarded updates, which then cannot miss.
+     *
+     * @return bucketNo to quantity, or null (nothing taken) if the buckets
+     *         together hold less than {@code quantity}.
+     */
+    private Map<Integer, Integer> splitAcrossBuckets(Long productId, int quantity,
+            ToIntFunction<BucketStock> counter) {
+        List<BucketStock> buckets = productStockBucketRepository.lockStock(productId);
+        if (buckets.stream().mapToInt(counter).sum() < quantity) {
+            return null;
+        }
+
+        Map<Integer, Integer> parts = new TreeMap<>();
+        int remaining = quantity;
+        for (BucketStock bucket : buckets) {
+            int part = Math.min(counter.applyAsInt(bucket), remaining);
+            if (part > 0) {
+                parts.put(bucket.getBucketNo(), part);
+                remaining -= part;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Spreads {@code total} evenly over buckets 0..n-1, reusing existing rows.
+     * Buckets beyond n are removed and their reservations moved to the products
+     * row, where confirm/release still find them.
+     */
+    private void redistribute(Product product, List<ProductStockBucket> existing, int buckets, int total) {
+        Map<Integer, ProductStockBucket> byNo = new HashMap<>();
+        existing.forEach(bucket -> byNo.put(bucket.getBucketNo(), bucket));
+
+        List<ProductStockBucket> toSave = new ArrayList<>(buckets);
+        for (int bucketNo = 0; bucketNo < buckets; bucketNo++) {
+            int share = total / buckets + (bucketNo < total % buckets ? 1 : 0);
+
+            ProductStockBucket bucket = byNo.remove(bucketNo);
+            if (bucket == null) {
+                bucket = new ProductStockBucket(product.getId(), bucketNo, share, 0);
+            } else {
+                bucket.setStockAvailable(share);
+            }
+            toSave.add(bucket);
+        }
+
+        for (ProductStockBucket removed : byNo.values()) {
+            product.setStockReserved(product.getStockReserved() + removed.getStockReserved());
+        }
+        productStockBucketRepository.deleteAllInBatch(byNo.values());
+        productStockBucketRepository.saveAll(toSave);
+
+        product.setStockAvailable(0);
+    }
+
+    private void afterChange(Product product, int buckets) {
+        loadBucketTotals(List.of(product));
+
+        Long productId = product.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Map<Long, Integer> updated = new HashMap<>(bucketCounts);
+                if (buckets > 0) {
+                    updated.put(productId, buckets);
+                } else {
+                    updated.remove(productId);
+                }
+                bucketCounts = Map.copyOf(updated);
+            }
+        });
+    }
+
+    private static int sumAvailable(List<ProductStockBucket> buckets) {
+        return buckets.stream().mapToInt(ProductStockBucket::getStockAvailable).sum();
+    }
+}
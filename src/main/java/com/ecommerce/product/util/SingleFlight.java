@@ -0,0 +1,59 @@
+package com.ecommerce.product.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader
+ * on its own thread, callers arriving while it runs wait for and share its
+ * result (or exception). Nothing is remembered once the load finished, caching
+ * is the caller's business.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @return the loaded value, and whether this call shared another caller's load.
+     */
+    public Result<V> load(K key, Function<K, V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+
+        if (running != null) {
+            return new Result<>(await(running), true);
+        }
+
+        try {
+            V value = loader.apply(key);
+            own.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // rethrow the leader's exception as is, e.g. a not-found for the controller advice
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public record Result<V>(V value, boolean shared) {
+    }
+}
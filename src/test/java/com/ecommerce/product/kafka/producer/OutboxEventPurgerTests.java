@@ -0,0 +1,63 @@
+package com.ecommerce.product.kafka.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.ecommerce.product.repository.db.OutboxEventRepository;
+
+/**
+ * Chunked retention against H2 in MySQL mode. updated_at has second
+ * precision, so expired rows share timestamps and chunks must also seek on id.
+ */
+class OutboxEventPurgerTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE outbox_event (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, "
+                + "updated_at TIMESTAMP NOT NULL)");
+
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        when(outboxEventRepository.deleteSentByIds(anyCollection())).thenAnswer(invocation -> named.update(
+                "DELETE FROM outbox_event WHERE id IN (:ids) AND status = 'SENT'",
+                Map.of("ids", (Collection<Long>) invocation.getArgument(0))));
+    }
+
+    @Test
+    void deletesOnlyExpiredSentRowsInChunks() {
+        for (long id = 1; id <= 7; id++) {
+            insert(id, id == 4 ? "PENDING" : "SENT", "TIMESTAMPADD(DAY, -30, CURRENT_TIMESTAMP)");
+        }
+        insert(8, "SENT", "CURRENT_TIMESTAMP");
+        insert(9, "SENT", "TIMESTAMPADD(DAY, -40, CURRENT_TIMESTAMP)");
+
+        new OutboxEventPurger(outboxEventRepository, jdbcTemplate, 168, 2, 0, false).purgeExpiredEvents();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM outbox_event ORDER BY id", Long.class))
+                .containsExactly(4L, 8L);
+    }
+
+    private void insert(long id, String status, String updatedAt) {
+        jdbcTemplate.update("INSERT INTO outbox_event (id, status, updated_at) VALUES (?, ?, " + updatedAt + ")",
+                id, status);
+    }
+}
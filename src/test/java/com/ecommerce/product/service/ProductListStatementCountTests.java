@@ -0,0 +1,244 @@
+package com.ecommerce.product.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.product.config.TaskExecutorConfig;
+import com.ecommerce.product.controller.publicbrowse.dto.ProductPublicResponse;
+import com.ecommerce.product.controller.publicbrowse.dto.SearchFacets.CategoryFacet;
+import com.ecommerce.product.repository.db.CategoryRepository;
+import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.repository.db.ProductStockBucketRepository;
+import com.ecommerce.product.service.category.CategoryRegistry;
+import com.ecommerce.product.service.pagination.CursorPage;
+import com.ecommerce.product.service.pagination.PageTotal;
+import com.ecommerce.product.service.pagination.ProductCountEstimator;
+import com.ecommerce.product.service.publicbrowse.ProductDetailCache;
+import com.ecommerce.product.service.publicbrowse.PublicBrowseServiceImpl;
+import com.ecommerce.product.service.publicbrowse.SearchResultCache;
+import com.ecommerce.product.service.search.ProductSearchIndex;
+import com.ecommerce.product.service.search.ProductSuggestIndex;
+import com.ecommerce.product.service.search.SearchFilter;
+import com.ecommerce.product.service.search.SearchPage;
+import com.ecommerce.product.service.sellerbrowse.SellerBrowseServiceImpl;
+import com.ecommerce.product.service.stock.StockStripingServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * A product list page must cost a fixed number of statements, whatever its
+ * size: one for the page, one COUNT(*) for an exact total, and one for the
+ * bucket totals of its striped products. A product whose lazy Category proxy
+ * got initialized would show up as extra SELECTs.
+ *
+ * Statements are counted by Hibernate statistics against H2. The MATCH ...
+ * AGAINST queries cannot run there, so searches go through the in-memory
+ * index.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn" })
+// the search index is built on its own thread, so the rows must be committed
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductListStatementCountTests {
+
+    private static final int PRODUCTS = 250;
+    private static final int PAGE_SIZE = 100;
+    private static final long SELLER_ID = 12L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductStockBucketRepository productStockBucketRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ThreadPoolTaskExecutor searchIndexWriter = TaskExecutorConfig.boundedExecutor(
+            "search-index-writer-", 1, 100);
+    private Statistics statistics;
+    private ProductSearchIndex productSearchIndex;
+    private PublicBrowseServiceImpl publicBrowseService;
+    private SellerBrowseServiceImpl sellerBrowseService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (1, 'GAMES'), (2, 'BOOKS')");
+        // even ids are games, every tenth product is striped over two buckets
+        for (long id = 1; id <= PRODUCTS; id++) {
+            boolean striped = id % 10 == 0;
+            jdbcTemplate.update("INSERT INTO products (id, seller_admin_id, category_id, title, description, price, "
+                    + "stock_available, stock_reserved, stock_striped, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, 'A product', ?, 10, 0, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                    id, SELLER_ID, id % 2 == 0 ? 1 : 2, (id % 2 == 0 ? "Game " : "Book ") + id, 1000 + id * 50,
+                    striped);
+            if (striped) {
+                jdbcTemplate.update("INSERT INTO product_stock_buckets (product_id, bucket_no, stock_available, "
+                        + "stock_reserved) VALUES (?, 0, 5, 0), (?, 1, 5, 0)", id, id);
+            }
+        }
+
+        CategoryRegistry categoryRegistry = new CategoryRegistry(categoryRepository, 5000);
+        categoryRegistry.refresh();
+        StockStripingServiceImpl stockStripingService = new StockStripingServiceImpl(productStockBucketRepository);
+        ProductCountEstimator productCountEstimator = new ProductCountEstimator(productRepository,
+                new SimpleMeterRegistry(), Runnable::run, 100, 60000, 600000);
+
+        searchIndexWriter.initialize();
+        productSearchIndex = new ProductSearchIndex(productRepository, searchIndexWriter, 100);
+        productSearchIndex.build();
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("productSearchIndex", productSearchIndex);
+        publicBrowseService = new PublicBrowseServiceImpl(productRepository, stockStripingService, categoryRegistry,
+                new ProductDetailCache(new SimpleMeterRegistry(), 100, 5000), productCountEstimator,
+                new SearchResultCache(new SimpleMeterRegistry(), 100, 10000),
+                beans.getBeanProvider(ProductSearchIndex.class), beans.getBeanProvider(ProductSuggestIndex.class));
+        sellerBrowseService = new SellerBrowseServiceImpl(productRepository, stockStripingService, categoryRegistry,
+                productCountEstimator);
+
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject(String.valueOf(SELLER_ID)).build();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(jwt, null));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        awaitIndexBuilt();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        searchIndexWriter.shutdown();
+        jdbcTemplate.update("DELETE FROM product_stock_buckets");
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM categories");
+    }
+
+    @Test
+    void publicListPageIsPageCountAndBuckets() {
+        assertThat(statements(() -> publicBrowseService.getAllProducts(null, PageRequest.of(0, PAGE_SIZE))))
+                .isEqualTo(3);
+        assertThat(statements(() -> publicBrowseService.getAllProducts(null, PageRequest.of(0, 10))))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void publicCategoryPageIsPageCountAndBuckets() {
+        assertThat(statements(() -> publicBrowseService.getAllProducts(1L, PageRequest.of(0, PAGE_SIZE))))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void publicSlicePageSkipsTheCount() {
+        assertThat(statements(() -> publicBrowseService.getAllProducts(null, PageRequest.of(0, PAGE_SIZE),
+                PageTotal.NONE))).isEqualTo(2);
+    }
+
+    @Test
+    void publicCursorPageIsPageAndBuckets() {
+        CursorPage<ProductPublicResponse> first = publicBrowseService.getAllProducts(null, null,
+                PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(statements(() -> publicBrowseService.getAllProducts(null, first.nextCursor(),
+                PageRequest.of(0, PAGE_SIZE)))).isEqualTo(2);
+    }
+
+    @Test
+    void indexedSearchPageIsHydrationAndBuckets() {
+        assertThat(statements(() -> publicBrowseService.searchProducts("game", PageRequest.of(0, PAGE_SIZE))))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void cachedSearchPageIsHydrationAndBuckets() {
+        publicBrowseService.searchProducts("game", PageRequest.of(0, PAGE_SIZE));
+
+        Page<ProductPublicResponse> cached = publicBrowseService.searchProducts("GAME", PageRequest.of(0, PAGE_SIZE));
+        assertThat(cached.getTotalElements()).isEqualTo(PRODUCTS / 2);
+        assertThat(statements(() -> publicBrowseService.searchProducts("GAME", PageRequest.of(0, PAGE_SIZE))))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void facetedSearchPageCountsFacetsInMemory() {
+        SearchPage<ProductPublicResponse> result = publicBrowseService.searchProducts("product",
+                new SearchFilter(1L, null), true, PageRequest.of(0, PAGE_SIZE), PageTotal.EXACT);
+
+        assertThat(((Page<ProductPublicResponse>) result.page()).getTotalElements()).isEqualTo(PRODUCTS / 2);
+        // the category facet ignores the category filter
+        assertThat(result.facets().categories()).extracting(CategoryFacet::count)
+                .containsExactly((long) PRODUCTS / 2, (long) PRODUCTS / 2);
+        // books have no striped products, so no bucket totals either
+        assertThat(statements(() -> publicBrowseService.searchProducts("product", new SearchFilter(2L, null), true,
+                PageRequest.of(0, PAGE_SIZE), PageTotal.EXACT))).isEqualTo(1);
+    }
+
+    @Test
+    void sellerListPageIsPageCountAndBuckets() {
+        assertThat(statements(() -> sellerBrowseService.getMyProducts(null, PageRequest.of(0, PAGE_SIZE))))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void sellerCategoryPageIsPageCountAndBuckets() {
+        // no striped books
+        assertThat(statements(() -> sellerBrowseService.getMyProducts(2L, PageRequest.of(0, PAGE_SIZE))))
+                .isEqualTo(2);
+    }
+
+    /**
+     * Runs the call in a read-only transaction, as the service's own
+     * {@code @Transactional} would, and counts the JDBC statements it prepared.
+     */
+    private long statements(Supplier<?> call) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        statistics.clear();
+        readOnly.execute(status -> call.get());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void awaitIndexBuilt() {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!productSearchIndex.isReady()) {
+            assertThat(System.nanoTime()).as("search index built").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.product.service.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.pagination.ProductCountEstimator.Listing;
+import com.ecommerce.product.service.search.SearchFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductCountEstimatorTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    @Test
+    void estimatesCountedListings() {
+        when(productRepository.countByCategoryId(1L)).thenReturn(500L);
+        ProductCountEstimator estimator = estimator(Runnable::run);
+
+        Slice<String> page = estimator.withEstimate(slice(0, true), Listing.of(1L));
+
+        assertThat(((Page<String>) page).getTotalElements()).isEqualTo(500);
+    }
+
+    @Test
+    void neverCountsFullTextListings() {
+        ProductCountEstimator estimator = estimator(Runnable::run);
+        Listing search = Listing.ofSearch("+game*", SearchFilter.NONE);
+
+        assertThat(estimator.estimate(search)).isNull();
+        assertThat(estimator.withEstimate(slice(0, true), search)).isNotInstanceOf(Page.class);
+        // the last page knows its total anyway
+        assertThat(((Page<String>) estimator.withEstimate(slice(2, false), search)).getTotalElements()).isEqualTo(6);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void fullQueueLeavesTheSliceWithoutEstimate() {
+        ProductCountEstimator estimator = estimator(task -> {
+            throw new TaskRejectedException("full");
+        });
+
+        assertThat(estimator.estimate(Listing.of(null))).isNull();
+        assertThat(estimator.withEstimate(slice(0, true), Listing.of(null))).isNotInstanceOf(Page.class);
+    }
+
+    private ProductCountEstimator estimator(Executor executor) {
+        return new ProductCountEstimator(productRepository, new SimpleMeterRegistry(), executor, 100, 60000, 600000);
+    }
+
+    // page number of size 2, full
+    private static Slice<String> slice(int page, boolean hasNext) {
+        return new SliceImpl<>(List.of("a", "b"), PageRequest.of(page, 2), hasNext);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.product.service.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.ecommerce.product.exception.InvalidCursorException;
+import com.ecommerce.product.model.db.entity.Product;
+
+class ProductCursorTests {
+
+    @Test
+    void roundTripsEverySortProperty() {
+        Product last = new Product();
+        last.setId(42L);
+        last.setPrice(5999L);
+        last.setCreatedAt(Instant.ofEpochMilli(1_700_000_000_123L));
+
+        for (String property : new String[] { "id", "price", "createdAt" }) {
+            ProductCursor cursor = ProductCursor.after(last, ProductCursor.firstPageSort(
+                    PageRequest.of(0, 10, Sort.by(Direction.DESC, property))));
+
+            assertThat(ProductCursor.decode(cursor.encode())).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void keepsTheFirstPageSortWithIdAsTieBreaker() {
+        ProductCursor cursor = new ProductCursor("price", Direction.DESC, 5999L, 42L);
+
+        assertThat(cursor.sort()).isEqualTo(Sort.by(Direction.DESC, "price").and(Sort.by(Direction.DESC, "id")));
+        KeysetScrollPosition position = cursor.toScrollPosition();
+        assertThat(position.getKeys()).containsExactly(
+                Map.entry("price", 5999L), Map.entry("id", 42L));
+    }
+
+    @Test
+    void defaultsToIdAscending() {
+        assertThat(ProductCursor.firstPageSort(PageRequest.of(0, 10))).isEqualTo(Sort.by(Direction.ASC, "id"));
+    }
+
+    @Test
+    void rejectsUnsupportedSorts() {
+        assertThatThrownBy(() -> ProductCursor.firstPageSort(PageRequest.of(0, 10, Sort.by("title"))))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.firstPageSort(PageRequest.of(0, 10, Sort.by("price", "id"))))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> ProductCursor.decode("not base64!")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(token("title|ASC|x|1")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(token("price|SIDEWAYS|1|1")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(token("price|ASC|cheap|1")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(token("price|ASC|1")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,147 @@
+package com.ecommerce.product.service.productchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+
+/**
+ * Two instances sharing one product_change table (H2 in MySQL mode), each
+ * with its own feed.
+ */
+class ProductChangeFeedTests {
+
+    private static final int BATCH_SIZE = 2;
+    private static final long GAP_TIMEOUT_MS = 60_000;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private final List<Object> eventsOfA = new ArrayList<>();
+    private final List<Object> eventsOfB = new ArrayList<>();
+    private ProductChangeFeed feedA;
+    private ProductChangeFeed feedB;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("CREATE TABLE product_change (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "product_id BIGINT NOT NULL, origin VARCHAR(100) NOT NULL, "
+                + "created_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) NOT NULL)");
+
+        feedA = feed(eventsOfA, GAP_TIMEOUT_MS);
+        feedB = feed(eventsOfB, GAP_TIMEOUT_MS);
+    }
+
+    @Test
+    void otherInstancesGetCatalogueChangesInBatches() {
+        commit(feedA, ProductsChangedEvent.catalogue(List.of(1L, 2L, 3L)));
+
+        feedB.poll();
+        feedA.poll();
+
+        // three rows take two batches of one poll
+        assertThat(productIds(eventsOfB)).containsExactly(List.of(1L, 2L), List.of(3L));
+        assertThat(eventsOfA).isEmpty();
+    }
+
+    @Test
+    void skipsStockChangesAndRolledBackTransactions() {
+        commit(feedA, ProductsChangedEvent.stock(List.of(1L)));
+        transactionTemplate.executeWithoutResult(status -> {
+            feedA.record(ProductsChangedEvent.catalogue(List.of(2L)));
+            status.setRollbackOnly();
+        });
+
+        feedB.poll();
+
+        assertThat(eventsOfB).isEmpty();
+    }
+
+    @Test
+    void startsAfterTheChangesOlderThanTheGapTimeout() {
+        commit(feedA, ProductsChangedEvent.catalogue(List.of(1L)));
+        jdbcTemplate.update("UPDATE product_change SET created_at = TIMESTAMPADD(HOUR, -1, CURRENT_TIMESTAMP(3))");
+        commit(feedA, ProductsChangedEvent.catalogue(List.of(2L)));
+
+        List<Object> events = new ArrayList<>();
+        feed(events, GAP_TIMEOUT_MS).poll();
+
+        assertThat(productIds(events)).containsExactly(List.of(2L));
+    }
+
+    @Test
+    void waitsForIdsThatCommitLate() {
+        insert(1, 10);
+        insert(3, 30);
+        feedB.poll();
+
+        // the transaction that took id 2 commits only now
+        insert(2, 20);
+        feedB.poll();
+        feedB.poll();
+
+        assertThat(productIds(eventsOfB)).containsExactly(List.of(10L, 30L), List.of(20L));
+    }
+
+    @Test
+    void stopsWaitingForIdsAfterTheGapTimeout() {
+        List<Object> events = new ArrayList<>();
+        ProductChangeFeed feed = feed(events, 0);
+        insert(1, 10);
+        insert(3, 30);
+        feed.poll();
+        feed.poll();
+
+        insert(2, 20);
+        feed.poll();
+
+        assertThat(productIds(events)).containsExactly(List.of(10L, 30L));
+    }
+
+    @Test
+    void purgesChangesPastRetention() {
+        commit(feedA, ProductsChangedEvent.catalogue(List.of(1L, 2L)));
+        jdbcTemplate.update("UPDATE product_change SET created_at = TIMESTAMPADD(HOUR, -25, CURRENT_TIMESTAMP(3)) "
+                + "WHERE product_id = 1");
+
+        feedA.purgeExpiredChanges();
+
+        assertThat(jdbcTemplate.queryForList("SELECT product_id FROM product_change", Long.class))
+                .containsExactly(2L);
+    }
+
+    private ProductChangeFeed feed(List<Object> events, long gapTimeoutMs) {
+        ProductChangeFeed feed = new ProductChangeFeed(jdbcTemplate, events::add, gapTimeoutMs, 100, BATCH_SIZE,
+                24, 1000, 0);
+        feed.initialize();
+        return feed;
+    }
+
+    // a row written by some other instance
+    private void insert(long id, long productId) {
+        jdbcTemplate.update("INSERT INTO product_change (id, product_id, origin) VALUES (?, ?, 'other')", id,
+                productId);
+    }
+
+    private static List<List<Long>> productIds(List<Object> events) {
+        return events.stream().map(event -> List.copyOf(((ProductsChangedEvent) event).productIds())).toList();
+    }
+
+    private void commit(ProductChangeFeed feed, ProductsChangedEvent event) {
+        transactionTemplate.executeWithoutResult(status -> feed.record(event));
+    }
+}
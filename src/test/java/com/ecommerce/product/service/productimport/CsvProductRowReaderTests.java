@@ -0,0 +1,107 @@
+package com.ecommerce.product.service.productimport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecommerce.product.controller.productmanage.dto.ProductCreateRequest;
+import com.ecommerce.product.exception.InvalidImportException;
+
+class CsvProductRowReaderTests {
+
+    private static final int MAX_ROW_CHARS = 100;
+
+    @Test
+    void readsColumnsInHeaderOrder() throws IOException {
+        List<ImportRow> rows = read("""
+                \uFEFFtitle,price,categoryId,stockAvailable,description
+                Space Game,5999,1,10,
+                """);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).row()).isEqualTo(2);
+        assertThat(rows.get(0).request()).isEqualTo(new ProductCreateRequest(1L, "Space Game", null, 5999L, 10));
+    }
+
+    @Test
+    void readsQuotedFields() throws IOException {
+        List<ImportRow> rows = read("""
+                categoryId,title,description,price,stockAvailable
+                1,"Game, Deluxe","The ""best""
+                game ever",5999,10
+                2,Book,,1500,3
+                """);
+
+        assertThat(rows).extracting(ImportRow::row).containsExactly(2L, 4L);
+        assertThat(rows.get(0).request().title()).isEqualTo("Game, Deluxe");
+        assertThat(rows.get(0).request().description()).isEqualTo("The \"best\"\ngame ever");
+        assertThat(rows.get(1).request().description()).isNull();
+    }
+
+    @Test
+    void failsBadRowsAndGoesOn() throws IOException {
+        List<ImportRow> rows = read("""
+                categoryId,title,price,stockAvailable
+                1,Game,cheap,10
+                1,Game,5999
+
+                1,Game,5999,10
+                1,"Game,5999,10
+                """);
+
+        assertThat(rows).extracting(ImportRow::row).containsExactly(2L, 3L, 5L, 6L);
+        assertThat(rows.get(0).error()).contains("price");
+        assertThat(rows.get(1).error()).contains("Expected 4 columns");
+        assertThat(rows.get(2).error()).isNull();
+        assertThat(rows.get(3).error()).isEqualTo("Unterminated quoted field.");
+    }
+
+    @Test
+    void failsOverlongRowsAndResumesOnTheNextLine() throws IOException {
+        List<ImportRow> rows = read("""
+                categoryId,title,price,stockAvailable
+                1,"%s",5999,10
+                1,"%s,5999,10
+                1,Game,5999,10
+                1,Book,1500,3
+                """.formatted("x".repeat(MAX_ROW_CHARS), "y".repeat(80)), MAX_ROW_CHARS);
+
+        assertThat(rows).extracting(ImportRow::row).containsExactly(2L, 3L, 5L);
+        assertThat(rows.get(0).error()).isEqualTo("Row is longer than 100 characters.");
+        // the stray quote swallows the next line, which runs over
+        assertThat(rows.get(1).error()).isEqualTo("Row is longer than 100 characters.");
+        assertThat(rows.get(2).request().title()).isEqualTo("Book");
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        assertThatThrownBy(() -> read("categoryId,title\n1,Game\n"))
+                .isInstanceOf(InvalidImportException.class)
+                .hasMessageContaining("price");
+    }
+
+    @Test
+    void emptyBodyHasNoRows() throws IOException {
+        assertThat(read("")).isEmpty();
+    }
+
+    private static List<ImportRow> read(String csv) throws IOException {
+        return read(csv, 65536);
+    }
+
+    private static List<ImportRow> read(String csv, int maxRowChars) throws IOException {
+        CsvProductRowReader reader = new CsvProductRowReader(new BufferedReader(new StringReader(csv)), maxRowChars);
+        List<ImportRow> rows = new ArrayList<>();
+        for (ImportRow row = reader.next(); row != null; row = reader.next()) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.product.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The in-memory index buckets prices with PriceRange.of, MySQL facets with
+ * INTERVAL(price, PriceRange.BOUNDS); both must agree on every price.
+ */
+class PriceRangeTests {
+
+    @Test
+    void agreesWithMysqlInterval() {
+        for (long bound : PriceRange.BOUNDS) {
+            for (long price : new long[] { bound - 1, bound, bound + 1 }) {
+                assertThat(PriceRange.of(price).ordinal()).as("price %d", price)
+                        .isEqualTo(interval(price, PriceRange.BOUNDS));
+            }
+        }
+        assertThat(PriceRange.of(0)).isEqualTo(PriceRange.UNDER_10);
+        assertThat(PriceRange.of(Long.MAX_VALUE)).isEqualTo(PriceRange.FROM_500);
+    }
+
+    @Test
+    void rangeContainsItsPrices() {
+        for (long price = 0; price <= 60_000; price += 250) {
+            PriceRange range = PriceRange.of(price);
+            assertThat(range.getMinPrice() == null || price >= range.getMinPrice()).as("price %d", price).isTrue();
+            assertThat(range.getMaxPrice() == null || price < range.getMaxPrice()).as("price %d", price).isTrue();
+        }
+    }
+
+    @Test
+    void rangesAreContiguous() {
+        PriceRange[] ranges = PriceRange.values();
+        for (int i = 1; i < ranges.length; i++) {
+            assertThat(ranges[i].getMinPrice()).isEqualTo(ranges[i - 1].getMaxPrice());
+        }
+    }
+
+    // MySQL INTERVAL(N, N1, N2, ...): 0 if N < N1, 1 if N < N2, ..., by binary search over ascending bounds
+    private static int interval(long price, List<Long> bounds) {
+        int low = 0;
+        int high = bounds.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (price < bounds.get(middle)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.product.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.ecommerce.product.config.TaskExecutorConfig;
+import com.ecommerce.product.model.db.entity.Product;
+import com.ecommerce.product.repository.db.ProductRepository;
+
+class ProductSearchIndexTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ThreadPoolTaskExecutor writer = TaskExecutorConfig.boundedExecutor("search-index-writer-", 1, 100);
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<Product> products = List.of(
+                product(1L, 1L, "Space Game", "Fun for everyone", 5999L),
+                product(2L, 2L, "Puzzle Book", "A space adventure in print", 1500L),
+                product(3L, 1L, "Space", null, 800L),
+                product(4L, 1L, "Space Rocket Deluxe Edition", null, 25000L));
+        when(productRepository.findBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(Window.from(products, ScrollPosition::offset, false));
+
+        writer.initialize();
+        index = new ProductSearchIndex(productRepository, writer, 100);
+        index.build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!index.isReady()) {
+            assertThat(System.nanoTime()).as("index built").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void ranksTitleMatchesAndShortDocumentsFirst() {
+        ProductSearchIndex.Hits hits = index.search("space", SearchFilter.NONE, false, 0, 10);
+
+        // title terms weigh double; among title hits the shortest wins
+        assertThat(hits.productIds()).containsExactly(3L, 1L, 4L, 2L);
+        assertThat(hits.total()).isEqualTo(4);
+    }
+
+    @Test
+    void matchesTermsAsPrefixes() {
+        assertThat(index.search("spa", SearchFilter.NONE, false, 0, 10).productIds()).hasSize(4);
+        assertThat(index.search("spaces", SearchFilter.NONE, false, 0, 10).productIds()).isEmpty();
+        assertThat(index.search("ROCK", SearchFilter.NONE, false, 0, 10).productIds()).containsExactly(4L);
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        assertThat(index.search("space puzzle", SearchFilter.NONE, false, 0, 10).productIds()).containsExactly(2L);
+        assertThat(index.search("space nothing", SearchFilter.NONE, false, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void pagesKeepTheRanking() {
+        assertThat(index.search("space", SearchFilter.NONE, false, 1, 2).productIds()).containsExactly(1L, 4L);
+        assertThat(index.search("space", SearchFilter.NONE, false, 4, 2).productIds()).isEmpty();
+    }
+
+    @Test
+    void facetsIgnoreTheirOwnFilter() {
+        ProductSearchIndex.Hits hits = index.search("space", new SearchFilter(1L, PriceRange.FROM_50_TO_100), true,
+                0, 10);
+
+        assertThat(hits.productIds()).containsExactly(1L);
+        assertThat(hits.total()).isEqualTo(1);
+        // categories narrowed by the price filter only, price ranges by the category filter only
+        assertThat(hits.facets().categories()).isEqualTo(Map.of(1L, 1L));
+        assertThat(hits.facets().priceRanges()).isEqualTo(Map.of(
+                PriceRange.UNDER_10, 1L, PriceRange.FROM_50_TO_100, 1L, PriceRange.FROM_100_TO_500, 1L));
+        assertThat(hits.facets().total()).isEqualTo(1);
+    }
+
+    private static Product product(Long id, Long categoryId, String title, String description, Long price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        product.setTitle(title);
+        product.setDescription(description);
+        product.setPrice(price);
+        return product;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.product.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.ecommerce.product.config.TaskExecutorConfig;
+import com.ecommerce.product.model.db.projection.ProductTitle;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+import com.ecommerce.product.repository.db.ProductRepository;
+
+class ProductSuggestIndexTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ThreadPoolTaskExecutor writer = TaskExecutorConfig.boundedExecutor("suggest-index-writer-", 1, 100);
+    private ProductSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findTitlesByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new ProductTitle(1L, "Space Game"),
+                new ProductTitle(2L, "Space Rocket"),
+                new ProductTitle(3L, "Spa Day"),
+                new ProductTitle(4L, "Board Game"),
+                new ProductTitle(5L, "Spark Plug")));
+
+        writer.initialize();
+        index = new ProductSuggestIndex(productRepository, writer, 2, 100);
+        index.build();
+        await(index::isReady);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void suggestsMostPopularTokensFirst() {
+        assertThat(index.suggest("spa", 10)).containsExactly("space", "spa");
+        assertThat(index.suggest("ga", 10)).containsExactly("game");
+        assertThat(index.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void keepsTopKPerNode() {
+        // space, spa and spark share "s", but top.k is 2; ties go alphabetically
+        assertThat(index.suggest("s", 10)).containsExactly("space", "spa");
+        assertThat(index.suggest("s", 1)).containsExactly("space");
+        assertThat(index.suggest("spar", 10)).containsExactly("spark");
+    }
+
+    @Test
+    void followsRetitledProducts() {
+        when(productRepository.findTitlesByIdIn(List.of(3L))).thenReturn(List.of(new ProductTitle(3L, "Space Day")));
+
+        index.onProductsChanged(ProductsChangedEvent.catalogue(List.of(3L)));
+
+        // "spa" lost its only title and is pruned
+        await(() -> index.suggest("spa", 10).equals(List.of("space", "spark")));
+        assertThat(index.suggest("day", 10)).containsExactly("day");
+    }
+
+    @Test
+    void prunesTokensOfDeletedProducts() {
+        when(productRepository.findTitlesByIdIn(List.of(2L))).thenReturn(List.of());
+
+        index.onProductsChanged(ProductsChangedEvent.catalogue(List.of(2L)));
+
+        await(() -> index.suggest("r", 10).isEmpty());
+        // space is down to one title, tied with spa and spark
+        assertThat(index.suggest("spa", 10)).containsExactly("spa", "space");
+    }
+
+    @Test
+    void ignoresStockOnlyChanges() {
+        index.onProductsChanged(ProductsChangedEvent.stock(List.of(1L, 2L)));
+
+        assertThat(index.suggest("spa", 10)).containsExactly("space", "spa");
+    }
+
+    @Test
+    void reconcilesAfterAFailedChange() {
+        when(productRepository.findTitlesByIdIn(List.of(3L))).thenThrow(new IllegalStateException("db down"));
+        index.onProductsChanged(ProductsChangedEvent.catalogue(List.of(3L)));
+
+        // meanwhile product 3 was retitled and product 5 deleted
+        when(productRepository.findTitlesByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new ProductTitle(1L, "Space Game"),
+                new ProductTitle(2L, "Space Rocket"),
+                new ProductTitle(3L, "Space Day"),
+                new ProductTitle(4L, "Board Game")));
+        await(() -> {
+            index.reconcile();
+            return index.suggest("spa", 10).equals(List.of("space"));
+        });
+        assertThat(index.suggest("day", 10)).containsExactly("day");
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
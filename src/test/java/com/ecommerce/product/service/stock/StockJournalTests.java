@@ -0,0 +1,104 @@
+package com.ecommerce.product.service.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ecommerce.product.service.stock.StockJournal.Entry;
+import com.ecommerce.product.service.stock.StockJournal.Type;
+
+/**
+ * A crash can tear the record being written at the tail of the journal; that
+ * record is dropped, anything else that fails its CRC is refused.
+ */
+class StockJournalTests {
+
+    private static final long SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void truncatesTornTail() throws IOException {
+        StockJournal journal = new StockJournal(directory, 0, SEGMENT_BYTES);
+        journal.open(0);
+        journal.append(tentative(1, "order-1"));
+        journal.append(tentative(2, "order-2"));
+        journal.append(tentative(3, "order-3"));
+        journal.close();
+
+        Path segment = onlySegment();
+        long intactSize = Files.size(segment);
+        flipByte(segment, intactSize - 1);
+
+        journal = new StockJournal(directory, 0, SEGMENT_BYTES);
+        List<Entry> entries = journal.open(0);
+        assertThat(entries).extracting(Entry::seq).containsExactly(1L, 2L);
+        assertThat(Files.size(segment)).isLessThan(intactSize);
+
+        // appends continue right after the last intact record
+        journal.append(tentative(3, "order-3"));
+        journal.close();
+
+        journal = new StockJournal(directory, 0, SEGMENT_BYTES);
+        assertThat(journal.open(0)).extracting(Entry::eventId).containsExactly("order-1", "order-2", "order-3");
+        journal.close();
+    }
+
+    @Test
+    void refusesCorruptSegmentBeforeTheLast() throws IOException {
+        // every roll check starts a new segment
+        StockJournal journal = new StockJournal(directory, 0, 1);
+        journal.open(0);
+        journal.append(tentative(1, "order-1"));
+        journal.rollIfLarger(2);
+        journal.append(tentative(2, "order-2"));
+        journal.close();
+
+        Path first = directory.resolve("partition-0-%020d.log".formatted(1));
+        flipByte(first, Files.size(first) - 1);
+
+        StockJournal reopened = new StockJournal(directory, 0, 1);
+        assertThatThrownBy(() -> reopened.open(0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void readsFromRequestedSeq() {
+        StockJournal journal = new StockJournal(directory, 0, SEGMENT_BYTES);
+        journal.open(0);
+        journal.append(tentative(1, "order-1"));
+        journal.append(new Entry(Type.COMMIT, 2, 7L, 0, 0, 1, null));
+        journal.append(tentative(3, "order-3"));
+        journal.close();
+
+        journal = new StockJournal(directory, 0, SEGMENT_BYTES);
+        assertThat(journal.open(2)).extracting(Entry::type).containsExactly(Type.COMMIT, Type.TENTATIVE);
+        journal.close();
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+
+    private static Entry tentative(long seq, String eventId) {
+        return new Entry(Type.TENTATIVE, seq, 7L, -1, 1, 0, eventId);
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) position] ^= 0x5A;
+        Files.write(file, bytes);
+    }
+}
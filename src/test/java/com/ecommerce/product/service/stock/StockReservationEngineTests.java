@@ -0,0 +1,151 @@
+package com.ecommerce.product.service.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecommerce.product.service.stock.StockJournal.Entry;
+import com.ecommerce.product.service.stock.StockJournal.Type;
+import com.ecommerce.product.service.stock.StockReservationEngine.Outcome;
+import com.ecommerce.product.service.stock.StockReservationEngine.Reservation;
+
+/**
+ * Crash recovery of the stock engine against H2 in MySQL mode. A crash is an
+ * engine that is neither flushed nor shut down, whose lease is then expired so
+ * a second engine on the same journal can take over.
+ *
+ * With two partitions product 1 lives in partition 1 and product 2 in
+ * partition 0, so an order of both spans partitions.
+ */
+class StockReservationEngineTests {
+
+    private static final int PARTITIONS = 2;
+    private static final long LEASE_MS = 60_000;
+    // tests flush explicitly; a crashed engine must not write behind on its own
+    private static final long FLUSH_MS = 3_600_000;
+
+    @TempDir
+    Path journalDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private final List<StockReservationEngine> engines = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock_available INT NOT NULL, "
+                + "stock_reserved INT NOT NULL, stock_striped BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE processed_event (event_id VARCHAR(100) PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE stock_engine_checkpoint (partition_no INT PRIMARY KEY, "
+                + "last_seq BIGINT NOT NULL, replay_from_seq BIGINT NOT NULL, "
+                + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE stock_engine_lease (name VARCHAR(50) PRIMARY KEY, "
+                + "owner VARCHAR(100) NOT NULL, expires_at TIMESTAMP(3) NOT NULL)");
+
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 10, 0, FALSE), (2, 10, 0, FALSE)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        // engines that lost their lease flush nothing
+        engines.forEach(StockReservationEngine::shutdown);
+    }
+
+    @Test
+    void replaysCommittedReservationsAfterCrash() {
+        StockReservationEngine crashed = start(LEASE_MS);
+        assertThat(reserveAndRecord(crashed, "order-1", Map.of(1L, 3, 2L, 4))).isEqualTo(Outcome.RESERVED);
+        // queued behind the COMMITs of order-1, so they are journaled once this returns
+        crashed.setAvailable(1L, 7);
+        crashed.setAvailable(2L, 6);
+        crash();
+
+        start(LEASE_MS).flush();
+
+        assertThat(stock(1L)).containsExactly(7, 3);
+        assertThat(stock(2L)).containsExactly(6, 4);
+    }
+
+    @Test
+    void settlesInDoubtChangesByTheirSagaStep() {
+        StockJournal journal = new StockJournal(journalDir, 1, 64 * 1024 * 1024);
+        journal.open(0);
+        journal.append(new Entry(Type.TENTATIVE, 1, 1L, -2, 2, 0, "order-committed"));
+        journal.append(new Entry(Type.TENTATIVE, 2, 1L, -5, 5, 0, "order-rolled-back"));
+        journal.close();
+        jdbcTemplate.update("INSERT INTO processed_event VALUES ('order-committed')");
+
+        start(LEASE_MS).flush();
+
+        assertThat(stock(1L)).containsExactly(8, 2);
+    }
+
+    @Test
+    void insufficientOrderIsGivenBackBeforeItsStepCommits() {
+        jdbcTemplate.update("UPDATE products SET stock_available = 1 WHERE id = 2");
+
+        StockReservationEngine crashed = start(LEASE_MS);
+        // product 1 is taken tentatively, product 2 is short; the saga step still
+        // commits its processed_event row (with STOCK_RESERVE_FAILED)
+        assertThat(reserveAndRecord(crashed, "order-2", Map.of(1L, 3, 2L, 5))).isEqualTo(Outcome.INSUFFICIENT);
+        crash();
+
+        start(LEASE_MS).flush();
+
+        assertThat(stock(1L)).containsExactly(10, 0);
+        assertThat(stock(2L)).containsExactly(1, 0);
+    }
+
+    @Test
+    void refusesToStartWhileAnotherInstanceHoldsTheLease() {
+        start(LEASE_MS);
+
+        StockReservationEngine second = new StockReservationEngine(jdbcTemplate, transactionManager, PARTITIONS,
+                journalDir.resolve("second").toString(), false, 64 * 1024 * 1024, 512, 500, FLUSH_MS);
+        assertThatThrownBy(second::start).isInstanceOf(IllegalStateException.class);
+    }
+
+    private StockReservationEngine start(long leaseMs) {
+        StockReservationEngine engine = new StockReservationEngine(jdbcTemplate, transactionManager, PARTITIONS,
+                journalDir.toString(), false, 64 * 1024 * 1024, 512, leaseMs, FLUSH_MS);
+        engine.start();
+        engines.add(engine);
+        return engine;
+    }
+
+    private Outcome reserveAndRecord(StockReservationEngine engine, String eventId, Map<Long, Integer> quantities) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Reservation reservation = engine.reserve(eventId, quantities);
+            jdbcTemplate.update("INSERT INTO processed_event VALUES (?)", eventId);
+            return reservation.outcome();
+        });
+    }
+
+    private void crash() {
+        jdbcTemplate.update("UPDATE stock_engine_lease SET expires_at = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP(3))");
+    }
+
+    private List<Integer> stock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_available, stock_reserved FROM products WHERE id = ?",
+                (rs, row) -> List.of(rs.getInt(1), rs.getInt(2)), productId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.product.service.stock;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.ecommerce.product.kafka.dto.EventMetadata;
+import com.ecommerce.product.kafka.dto.OrderItemDto;
+import com.ecommerce.product.kafka.dto.SagaEventPayload;
+import com.ecommerce.product.model.db.entity.OutboxEvent;
+import com.ecommerce.product.model.event.ProductsChangedEvent;
+import com.ecommerce.product.repository.db.OutboxEventRepository;
+import com.ecommerce.product.repository.db.ProductRepository;
+import com.ecommerce.product.service.stock.StockReservationLedger.Settlement;
+import com.ecommerce.product.util.JsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Payment results for orders that hold no reservation must not touch stock:
+ * whatever the payload lists is then held by other orders.
+ */
+class StockSagaServiceImplTests {
+
+    private static final long ORDER_ID = 42L;
+
+    private final JsonUtil jsonUtil = new JsonUtil(new ObjectMapper());
+    private ProductRepository productRepository;
+    private StockStripingService stockStripingService;
+    private StockReservationLedger stockReservationLedger;
+    private ApplicationEventPublisher eventPublisher;
+    private StockSagaServiceImpl stockSagaService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        stockStripingService = mock(StockStripingService.class);
+        stockReservationLedger = mock(StockReservationLedger.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ProcessedEventRegistry processedEventRegistry = mock(ProcessedEventRegistry.class);
+        when(processedEventRegistry.markProcessed(anyString(), anyString())).thenReturn(true);
+
+        stockSagaService = new StockSagaServiceImpl(productRepository, mock(OutboxEventRepository.class),
+                processedEventRegistry, stockStripingService, stockReservationLedger,
+                mock(ObjectProvider.class), eventPublisher, jsonUtil, false);
+    }
+
+    @Test
+    void paymentBeforeReservationIsIgnored() {
+        when(stockReservationLedger.settle(eq(ORDER_ID), anyString(), anyBoolean()))
+                .thenReturn(new Settlement(false, 0, 0));
+
+        stockSagaService.processPaymentResult(event("PAYMENT_FAILED"));
+        stockSagaService.processPaymentResult(event("PAYMENT_SUCCEEDED"));
+
+        verifyNoInteractions(productRepository, stockStripingService);
+        verify(eventPublisher, never()).publishEvent(any(ProductsChangedEvent.class));
+    }
+
+    @Test
+    void paymentAfterFailedReservationIsIgnored() {
+        // neither the row nor the buckets hold enough
+        when(productRepository.reserveStock(anyLong(), anyInt())).thenReturn(0);
+        when(stockStripingService.reserve(anyLong(), anyInt())).thenReturn(null);
+        when(productRepository.existsById(anyLong())).thenReturn(true);
+        stockSagaService.processOrderCreated(event("ORDER_CREATED"));
+        verify(stockReservationLedger, never()).record(any());
+
+        when(stockReservationLedger.settle(eq(ORDER_ID), anyString(), anyBoolean()))
+                .thenReturn(new Settlement(false, 0, 0));
+        stockSagaService.processPaymentResult(event("PAYMENT_FAILED"));
+
+        verify(productRepository, never()).releaseReservedStock(anyLong(), anyInt());
+        verify(productRepository, never()).confirmReservedStock(anyLong(), anyInt());
+        verify(stockStripingService, never()).release(anyLong(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any(ProductsChangedEvent.class));
+    }
+
+    private OutboxEvent event(String eventType) {
+        SagaEventPayload payload = new SagaEventPayload(ORDER_ID, 5000L, List.of(new OrderItemDto(7L, 2)));
+        EventMetadata metadata = EventMetadata.builder().traceId("trace").build();
+        return OutboxEvent.builder()
+                .eventId(eventType + "-" + ORDER_ID)
+                .eventType(eventType)
+                .payload(jsonUtil.toJson(payload))
+                .metadata(jsonUtil.toJson(metadata))
+                .build();
+    }
+}